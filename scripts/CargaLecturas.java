@@ -0,0 +1,196 @@
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Carga de lectura contra la API bloqueante y la reactiva con la misma concurrencia, para comparar
+ * rendimiento y memoria por conexión. Cada cliente virtual repite peticiones sin pausa (bucle cerrado)
+ * y lee la respuesta completa, así el NDJSON reactivo se consume hasta el final.
+ *
+ * <p>Uso, con la aplicación arrancada contra MySQL (perfil por defecto) y un access token válido:</p>
+ * <pre>
+ * java scripts/CargaLecturas.java --url http://localhost:8080 --token "$TOKEN" \
+ *     --pid $(pgrep -f FacturacionApplication) --concurrencia 16,64,256 --segundos 30 \
+ *     /api/clientes/1/facturas /api/reactive/clientes/1/facturas
+ * </pre>
+ *
+ * <p>Por cada ruta y concurrencia imprime peticiones por segundo, latencias p50/p99, errores y, si se
+ * indica {@code --pid} (solo Linux, se lee {@code /proc}), los hilos y la memoria residente máximos del
+ * servidor. La memoria por conexión es el aumento de RSS sobre el valor en reposo dividido por la
+ * concurrencia. Conviene arrancar el servidor con {@code -Xms} igual a {@code -Xmx} para que el
+ * crecimiento del heap no se confunda con el coste de las conexiones, y que el pool JDBC
+ * ({@code spring.datasource.hikari.maximum-pool-size}) y el R2DBC ({@code facturacion.reactivo.pool-max})
+ * tengan el mismo tamaño. Con H2 en memoria no hay espera de E/S y las dos rutas se igualan: la
+ * comparación solo tiene sentido contra MySQL. Los resultados medidos se anotan en
+ * {@code scripts/CargaLecturas.md}.</p>
+ */
+public class CargaLecturas {
+
+    public static void main(String[] args) throws Exception {
+        String url = "http://localhost:8080";
+        String token = null;
+        Long pid = null;
+        int[] concurrencias = {16, 64, 256};
+        int segundos = 30;
+        int calentamiento = 5;
+        List<String> rutas = new ArrayList<>();
+        for (int i = 0; i < args.length; i++) {
+            switch (args[i]) {
+                case "--url" -> url = args[++i];
+                case "--token" -> token = args[++i];
+                case "--pid" -> pid = Long.valueOf(args[++i]);
+                case "--concurrencia" -> concurrencias = Arrays.stream(args[++i].split(",")).mapToInt(Integer::parseInt).toArray();
+                case "--segundos" -> segundos = Integer.parseInt(args[++i]);
+                case "--calentamiento" -> calentamiento = Integer.parseInt(args[++i]);
+                default -> rutas.add(args[i]);
+            }
+        }
+        if (token == null || rutas.isEmpty()) {
+            System.err.println("Uso: java scripts/CargaLecturas.java --token TOKEN [--url URL] [--pid PID] "
+                    + "[--concurrencia 16,64,256] [--segundos 30] [--calentamiento 5] RUTA...");
+            System.exit(2);
+        }
+
+        System.out.printf("%-40s %6s %10s %9s %9s %8s %8s %10s %12s%n",
+                "ruta", "conc", "req/s", "p50 ms", "p99 ms", "errores", "hilos", "RSS MB", "KB/conexión");
+        for (int concurrencia : concurrencias) {
+            for (String ruta : rutas) {
+                medir(url + ruta, token, concurrencia, calentamiento, pid);
+                Resultado resultado = medir(url + ruta, token, concurrencia, segundos, pid);
+                System.out.printf("%-40s %6d %10.1f %9.2f %9.2f %8d %8s %10s %12s%n", ruta, concurrencia,
+                        resultado.peticiones / (double) segundos, resultado.percentil(0.50), resultado.percentil(0.99),
+                        resultado.errores, resultado.hilos < 0 ? "-" : resultado.hilos,
+                        resultado.rssMaximo < 0 ? "-" : resultado.rssMaximo / 1024,
+                        resultado.rssMaximo < 0 ? "-" : (resultado.rssMaximo - resultado.rssInicial) / concurrencia);
+            }
+        }
+    }
+
+    private static Resultado medir(String url, String token, int concurrencia, int segundos, Long pid)
+            throws InterruptedException {
+        ExecutorService hilosHttp = Executors.newFixedThreadPool(Math.max(4, concurrencia / 8));
+        HttpClient cliente = HttpClient.newBuilder()
+                .executor(hilosHttp)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        HttpRequest peticion = HttpRequest.newBuilder(URI.create(url))
+                .header("Authorization", "Bearer " + token)
+                .header("Accept", "application/x-ndjson, application/json")
+                .timeout(Duration.ofSeconds(60))
+                .build();
+
+        Resultado resultado = new Resultado();
+        resultado.rssInicial = pid == null ? -1 : proc(pid, "VmRSS:");
+        AtomicBoolean activo = new AtomicBoolean(true);
+        LongAdder errores = new LongAdder();
+        long[][] latencias = new long[concurrencia][];
+        int[] cuentas = new int[concurrencia];
+        ExecutorService clientesVirtuales = Executors.newFixedThreadPool(concurrencia);
+        for (int c = 0; c < concurrencia; c++) {
+            int indice = c;
+            clientesVirtuales.submit(() -> {
+                long[] propias = new long[1024];
+                int cuenta = 0;
+                while (activo.get()) {
+                    long inicio = System.nanoTime();
+                    try {
+                        HttpResponse<InputStream> respuesta = cliente.send(peticion, HttpResponse.BodyHandlers.ofInputStream());
+                        try (InputStream cuerpo = respuesta.body()) {
+                            cuerpo.transferTo(OutputStream.nullOutputStream());
+                        }
+                        if (respuesta.statusCode() != 200) {
+                            errores.increment();
+                            continue;
+                        }
+                    } catch (IOException e) {
+                        errores.increment();
+                        continue;
+                    } catch (InterruptedException e) {
+                        return;
+                    }
+                    if (cuenta == propias.length) {
+                        propias = Arrays.copyOf(propias, cuenta * 2);
+                    }
+                    propias[cuenta++] = System.nanoTime() - inicio;
+                }
+                latencias[indice] = propias;
+                cuentas[indice] = cuenta;
+            });
+        }
+
+        long fin = System.nanoTime() + TimeUnit.SECONDS.toNanos(segundos);
+        while (System.nanoTime() < fin) {
+            if (pid != null) {
+                resultado.rssMaximo = Math.max(resultado.rssMaximo, proc(pid, "VmRSS:"));
+                resultado.hilos = Math.max(resultado.hilos, proc(pid, "Threads:"));
+            }
+            Thread.sleep(250);
+        }
+        activo.set(false);
+        clientesVirtuales.shutdown();
+        clientesVirtuales.awaitTermination(2, TimeUnit.MINUTES);
+        hilosHttp.shutdown();
+
+        int total = 0;
+        for (int cuenta : cuentas) {
+            total += cuenta;
+        }
+        resultado.latencias = new long[total];
+        int posicion = 0;
+        for (int c = 0; c < concurrencia; c++) {
+            if (latencias[c] != null) {
+                System.arraycopy(latencias[c], 0, resultado.latencias, posicion, cuentas[c]);
+                posicion += cuentas[c];
+            }
+        }
+        Arrays.sort(resultado.latencias);
+        resultado.peticiones = total;
+        resultado.errores = errores.sum();
+        return resultado;
+    }
+
+    // Valor en kB (VmRSS) o cantidad (Threads) de /proc/<pid>/status; -1 si no se puede leer.
+    private static long proc(long pid, String campo) {
+        try {
+            for (String linea : Files.readAllLines(Path.of("/proc", Long.toString(pid), "status"))) {
+                if (linea.startsWith(campo)) {
+                    return Long.parseLong(linea.substring(campo.length()).trim().split("\\s+")[0]);
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            return -1;
+        }
+        return -1;
+    }
+
+    private static final class Resultado {
+        long peticiones;
+        long errores;
+        long[] latencias;
+        long rssInicial = -1;
+        long rssMaximo = -1;
+        long hilos = -1;
+
+        double percentil(double p) {
+            if (latencias.length == 0) {
+                return 0;
+            }
+            return latencias[(int) Math.min(latencias.length - 1, Math.floor(p * latencias.length))] / 1_000_000.0;
+        }
+    }
+}
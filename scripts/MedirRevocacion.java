@@ -0,0 +1,60 @@
+import com.example.demo.services.RevocacionTokenService;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Date;
+import java.util.UUID;
+
+/**
+ * Tiempo por consulta de {@code RevocacionTokenService.estaRevocado} para tokens no revocados, con el
+ * filtro lleno a su capacidad. Es la ruta de cada petición autenticada y debe quedar muy por debajo del
+ * microsegundo. Se mide aquí y no en las pruebas porque depende de la máquina, del JIT y de la carga.
+ *
+ * <p>Uso, desde la raíz del proyecto tras {@code mvn compile}:</p>
+ * <pre>
+ * mvn -q dependency:build-classpath -Dmdep.outputFile=target/classpath.txt
+ * java -cp "target/classes:$(cat target/classpath.txt)" scripts/MedirRevocacion.java [capacidad] [rondas]
+ * </pre>
+ */
+public class MedirRevocacion {
+
+    public static void main(String[] args) throws Exception {
+        int capacidad = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int rondas = args.length > 1 ? Integer.parseInt(args[1]) : 5;
+
+        Path directorio = Files.createTempDirectory("revocacion");
+        RevocacionTokenService servicio = new RevocacionTokenService(
+                directorio.resolve("tokens-revocados.log").toString(), capacidad);
+        servicio.cargar();
+        Date expiracion = new Date(System.currentTimeMillis() + 3_600_000);
+        for (int i = 0; i < capacidad; i++) {
+            servicio.revocarToken(UUID.randomUUID().toString(), expiracion);
+        }
+        String[] consultas = new String[4096];
+        for (int i = 0; i < consultas.length; i++) {
+            consultas[i] = UUID.randomUUID().toString();
+        }
+
+        // La primera ronda es calentamiento para que el JIT compile la ruta de la consulta.
+        int positivos = 0;
+        int iteraciones = 5_000_000;
+        for (int ronda = 0; ronda <= rondas; ronda++) {
+            long inicio = System.nanoTime();
+            for (int i = 0; i < iteraciones; i++) {
+                if (servicio.estaRevocado(consultas[i & (consultas.length - 1)])) {
+                    positivos++;
+                }
+            }
+            double nanos = (double) (System.nanoTime() - inicio) / iteraciones;
+            System.out.printf("%s %d: %.1f ns por consulta%n", ronda == 0 ? "calentamiento" : "ronda", ronda, nanos);
+        }
+        System.out.println("positivos: " + positivos);
+        servicio.cerrar();
+        try (var archivos = Files.list(directorio)) {
+            for (Path archivo : archivos.toList()) {
+                Files.delete(archivo);
+            }
+        }
+        Files.delete(directorio);
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.r2dbc.core.DatabaseClient;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Un pool R2DBC y su {@link DatabaseClient} por shard, en el mismo orden que los shards JDBC. Sin
+ * sharding solo contiene el principal.
+ */
+public class ConexionesReactivas implements DisposableBean {
+
+    private final Map<String, ConnectionPool> pools;
+    private final Map<String, DatabaseClient> clientes = new LinkedHashMap<>();
+
+    ConexionesReactivas(Map<String, ConnectionPool> pools) {
+        this.pools = pools;
+        pools.forEach((shard, pool) -> clientes.put(shard, DatabaseClient.create(pool)));
+    }
+
+    public Collection<DatabaseClient> todas() {
+        return Collections.unmodifiableCollection(clientes.values());
+    }
+
+    @Override
+    public void destroy() {
+        pools.values().forEach(ConnectionPool::dispose);
+    }
+}
@@ -0,0 +1,53 @@
+package com.example.demo.config;
+
+import org.hibernate.boot.Metadata;
+import org.hibernate.boot.spi.BootstrapContext;
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.integrator.spi.Integrator;
+import org.hibernate.service.spi.SessionFactoryServiceRegistry;
+import org.hibernate.tool.schema.spi.SchemaManagementToolCoordinator;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Aplica al resto de shards la misma gestión de esquema ({@code hibernate.hbm2ddl.auto}) que Hibernate
+ * aplica al arrancar sobre el principal. Se registra como {@link Integrator} para conservar el
+ * metamodelo. Los scripts de carga ({@code import.sql}) no se ejecutan en los shards: sus datos de
+ * referencia se replican desde el principal.
+ */
+public class EsquemaShards implements Integrator {
+
+    private Metadata metadata;
+    private SessionFactoryImplementor sessionFactory;
+
+    @Override
+    public void integrate(Metadata metadata, BootstrapContext bootstrapContext, SessionFactoryImplementor sessionFactory) {
+        this.metadata = metadata;
+        this.sessionFactory = sessionFactory;
+    }
+
+    @Override
+    public void disintegrate(SessionFactoryImplementor sessionFactory, SessionFactoryServiceRegistry serviceRegistry) {
+        this.metadata = null;
+        this.sessionFactory = null;
+    }
+
+    /**
+     * Crea o actualiza el esquema del shard. Debe llamarse fuera de cualquier transacción.
+     */
+    public void exportar(String shard) {
+        if (metadata == null) {
+            throw new IllegalStateException("El EntityManagerFactory aún no está inicializado");
+        }
+        Map<String, Object> configuracion = new HashMap<>(sessionFactory.getProperties());
+        // Con "," Hibernate no encuentra ningún archivo y no recurre al import.sql por defecto.
+        configuracion.put(AvailableSettings.HBM2DDL_IMPORT_FILES, ",");
+        ShardContexto.ejecutar(shard, () -> {
+            SchemaManagementToolCoordinator.process(metadata, sessionFactory.getServiceRegistry(), configuracion,
+                    accion -> { });
+            return null;
+        });
+    }
+}
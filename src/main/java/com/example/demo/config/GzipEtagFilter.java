@@ -0,0 +1,139 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import jakarta.servlet.http.HttpServletResponse;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Filtro que comprime con gzip las respuestas JSON grandes sin renunciar a los ETag fuertes.
+ *
+ * <p>La compresión del conector de Tomcat descarta cualquier respuesta con un ETag fuerte, así que
+ * la compresión se hace aquí. Como un ETag fuerte identifica bytes exactos, la variante comprimida
+ * lleva el sufijo {@code -gzip} (igual que hace Apache httpd); el sufijo se quita del
+ * {@code If-None-Match} entrante para que los controladores comparen siempre contra la versión base.</p>
+ */
+@Component
+public class GzipEtagFilter extends OncePerRequestFilter {
+
+    private static final String SUFIJO = "-gzip";
+
+    private final int tamanoMinimo;
+
+    /**
+     * @param tamanoMinimo Tamaño en bytes a partir del cual se comprime la respuesta.
+     */
+    public GzipEtagFilter(@Value("${facturacion.compresion.tamano-minimo:2048}") int tamanoMinimo) {
+        this.tamanoMinimo = tamanoMinimo;
+    }
+
+    /**
+     * Las respuestas de la API reactiva se envían por partes a medida que llegan de la base de datos;
+     * acumularlas aquí para comprimirlas anularía el streaming.
+     */
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        return request.getRequestURI().startsWith(request.getContextPath() + "/api/reactive/");
+    }
+
+    @Override
+    protected void doFilterInternal(
+            @NotNull HttpServletRequest request,
+            @NotNull HttpServletResponse response,
+            @NotNull FilterChain filterChain) throws ServletException, IOException {
+
+        String acceptEncoding = request.getHeader(HttpHeaders.ACCEPT_ENCODING);
+        if (acceptEncoding == null || !acceptEncoding.contains("gzip")) {
+            filterChain.doFilter(request, response);
+            return;
+        }
+
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        ContentCachingResponseWrapper respuesta = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(ifNoneMatch == null ? request : new SinSufijoRequest(request), respuesta);
+
+        String etag = respuesta.getHeader(HttpHeaders.ETAG);
+        boolean etagFuerte = etag != null && !etag.startsWith("W/");
+
+        // Un 304 debe devolver el mismo ETag que el cliente tiene guardado. Puede llegar sin
+        // If-None-Match si lo produjo otra condición, como If-Modified-Since.
+        if (respuesta.getStatus() == HttpServletResponse.SC_NOT_MODIFIED) {
+            if (etagFuerte && ifNoneMatch != null && ifNoneMatch.contains(conSufijo(etag))) {
+                respuesta.setHeader(HttpHeaders.ETAG, conSufijo(etag));
+            }
+            respuesta.copyBodyToResponse();
+            return;
+        }
+
+        if (!esJson(respuesta.getContentType())) {
+            respuesta.copyBodyToResponse();
+            return;
+        }
+
+        respuesta.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        byte[] cuerpo = respuesta.getContentAsByteArray();
+        if (cuerpo.length < tamanoMinimo || respuesta.getHeader(HttpHeaders.CONTENT_ENCODING) != null) {
+            respuesta.copyBodyToResponse();
+            return;
+        }
+
+        ByteArrayOutputStream comprimido = new ByteArrayOutputStream(cuerpo.length / 4);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(comprimido)) {
+            gzip.write(cuerpo);
+        }
+
+        if (etagFuerte) {
+            respuesta.setHeader(HttpHeaders.ETAG, conSufijo(etag));
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        response.setContentLength(comprimido.size());
+        comprimido.writeTo(response.getOutputStream());
+    }
+
+    private static boolean esJson(String contentType) {
+        return contentType != null && contentType.contains("json");
+    }
+
+    private static String conSufijo(String etag) {
+        return etag.substring(0, etag.length() - 1) + SUFIJO + "\"";
+    }
+
+    /**
+     * Expone el {@code If-None-Match} sin el sufijo de la variante comprimida.
+     */
+    private static class SinSufijoRequest extends HttpServletRequestWrapper {
+
+        SinSufijoRequest(HttpServletRequest request) {
+            super(request);
+        }
+
+        @Override
+        public String getHeader(String name) {
+            String valor = super.getHeader(name);
+            return HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name) && valor != null
+                    ? valor.replace(SUFIJO + "\"", "\"") : valor;
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+            if (!HttpHeaders.IF_NONE_MATCH.equalsIgnoreCase(name)) {
+                return super.getHeaders(name);
+            }
+            String valor = getHeader(name);
+            return valor == null ? Collections.emptyEnumeration() : Collections.enumeration(Collections.singletonList(valor));
+        }
+    }
+}
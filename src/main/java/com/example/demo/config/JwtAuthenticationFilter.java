@@ -1,6 +1,11 @@
 package com.example.demo.config;
 
+import com.example.demo.models.TipoEventoAuditoria;
+import com.example.demo.services.AuditoriaService;
 import com.example.demo.services.JwtService;
+import com.example.demo.services.RevocacionTokenService;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -28,6 +33,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private final HandlerExceptionResolver handlerExceptionResolver;
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final RevocacionTokenService revocacionTokenService;
+    private final AuditoriaService auditoriaService;
 
     /**
      * Constructor que inyecta los servicios necesarios para la validación de JWT,
@@ -36,17 +43,32 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
      * @param handlerExceptionResolver Resuelve excepciones dentro del filtro.
      * @param jwtService               Servicio para gestionar JWT (creación, validación).
      * @param userDetailsService       Servicio para cargar los detalles del usuario.
+     * @param revocacionTokenService   Lista de tokens revocados (logout, cambio de contraseña).
+     * @param auditoriaService         Log de auditoría de los tokens rechazados.
      */
     public JwtAuthenticationFilter(
             HandlerExceptionResolver handlerExceptionResolver,
             JwtService jwtService,
-            UserDetailsService userDetailsService) {
+            UserDetailsService userDetailsService,
+            RevocacionTokenService revocacionTokenService,
+            AuditoriaService auditoriaService) {
         this.handlerExceptionResolver = handlerExceptionResolver;
         this.jwtService = jwtService;
         this.userDetailsService = userDetailsService;
+        this.revocacionTokenService = revocacionTokenService;
+        this.auditoriaService = auditoriaService;
 
     }
 
+    /**
+     * El logout valida el token por su cuenta: debe funcionar aunque el access token ya haya expirado,
+     * así que no pasa por este filtro (que respondería 403 antes de llegar al controlador).
+     */
+    @Override
+    protected boolean shouldNotFilter(@NotNull HttpServletRequest request) {
+        return request.getRequestURI().equals(request.getContextPath() + "/auth/logout");
+    }
+
     /**
      * Método principal que intercepta cada solicitud HTTP y verifica el encabezado de autenticación.
      *
@@ -75,8 +97,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             // Extrae el token JWT quitando el prefijo "Bearer "
             final String jwt = authHeader.substring(7);
+            // Valida la firma y extrae los claims una sola vez
+            final Claims claims = jwtService.extractAllClaims(jwt);
             // Extrae el nombre de usuario (email) del token JWT
-            final String userEmail = jwtService.extractUsername(jwt);
+            final String userEmail = claims.getSubject();
+
+            // Un token revocado se trata como si no se hubiera enviado: la petición sigue sin autenticar
+            if (revocacionTokenService.estaRevocado(claims.getId())) {
+                auditoriaService.registrar(TipoEventoAuditoria.TOKEN_REVOCADO, userEmail, claims.getId());
+                filterChain.doFilter(request, response);
+                return;
+            }
 
             // Verifica si ya existe una autenticación en el contexto de seguridad
             Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
@@ -98,6 +129,8 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     authenticationToken.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
                     // Establece la autenticación en el contexto de seguridad de Spring
                     SecurityContextHolder.getContext().setAuthentication(authenticationToken);
+                } else {
+                    auditoriaService.registrar(TipoEventoAuditoria.TOKEN_RECHAZADO, userEmail, "invalido");
                 }
             }
 
@@ -105,6 +138,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             filterChain.doFilter(request, response);
 
         } catch (Exception exception) {
+            // Firma inválida, token expirado o mal formado
+            if (exception instanceof JwtException) {
+                auditoriaService.registrar(TipoEventoAuditoria.TOKEN_RECHAZADO, null, exception.getClass().getSimpleName());
+            }
             // Si ocurre una excepción, la pasa al resolutor de excepciones para gestionarla
             handlerExceptionResolver.resolveException(request, response, null, exception);
         }
@@ -0,0 +1,58 @@
+package com.example.demo.config;
+
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Conexiones R2DBC de la API reactiva de lectura. Usan las mismas credenciales que los datasources
+ * JDBC; solo cambia la URL ({@code facturacion.reactivo.url} para el principal y
+ * {@code url-reactiva} para cada shard). Las transacciones siguen siendo solo JDBC: la
+ * autoconfiguración R2DBC de Spring Boot está excluida para que no aparezca un segundo gestor de
+ * transacciones.
+ */
+@Configuration
+public class ReactivoConfiguration {
+
+    @Bean
+    public ConexionesReactivas conexionesReactivas(@Value("${facturacion.reactivo.url}") String url,
+                                                   @Value("${facturacion.reactivo.pool-max:20}") int poolMax,
+                                                   DataSourceProperties dataSourceProperties,
+                                                   ShardingProperties sharding) {
+        Map<String, ConnectionPool> pools = new LinkedHashMap<>();
+        pools.put(sharding.getPrincipal(), pool(sharding.getPrincipal(), url, dataSourceProperties.getUsername(),
+                dataSourceProperties.getPassword(), poolMax));
+
+        if (sharding.isHabilitado()) {
+            for (Map.Entry<String, ShardingProperties.Shard> shard : sharding.getShards().entrySet()) {
+                if (shard.getValue().getUrlReactiva() == null) {
+                    throw new IllegalStateException(
+                            "Falta facturacion.sharding.shards." + shard.getKey() + ".url-reactiva");
+                }
+                pools.put(shard.getKey(), pool(shard.getKey(), shard.getValue().getUrlReactiva(),
+                        shard.getValue().getUsername(), shard.getValue().getPassword(), poolMax));
+            }
+        }
+        return new ConexionesReactivas(pools);
+    }
+
+    private static ConnectionPool pool(String nombre, String url, String username, String password, int maxSize) {
+        ConnectionFactoryOptions opciones = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password == null ? "" : password)
+                .build();
+        return new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(opciones))
+                .name("reactivo-" + nombre)
+                .initialSize(1)
+                .maxSize(maxSize)
+                .build());
+    }
+}
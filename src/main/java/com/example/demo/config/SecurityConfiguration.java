@@ -1,13 +1,17 @@
 package com.example.demo.config;
 
+import jakarta.servlet.DispatcherType;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.authentication.AuthenticationProvider;
+import org.springframework.security.config.annotation.ObjectPostProcessor;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.header.HeaderWriterFilter;
 import org.springframework.web.cors.CorsConfiguration;
 import org.springframework.web.cors.CorsConfigurationSource;
 import org.springframework.web.cors.UrlBasedCorsConfigurationSource;
@@ -45,6 +49,21 @@ public class SecurityConfiguration {
                                         // Permite todas las solicitudes a las rutas que comienzan con /auth (ej. login, registro).
                                         .requestMatchers("/auth/**")
                                         .permitAll()
+                                        // El redespacho ASYNC que termina las respuestas Mono/Flux ya se autorizó en la petición original.
+                                        .dispatcherTypeMatchers(DispatcherType.ASYNC)
+                                        .permitAll()
+                                        // Recompilar la tabla de impuestos afecta a todas las facturas: solo administradores.
+                                        .requestMatchers(HttpMethod.POST, "/api/impuestos/recargar")
+                                        .hasRole("ADMIN")
+                                        // Un reprecio reescribe los precios de todo el catálogo.
+                                        .requestMatchers(HttpMethod.POST, "/api/reprecios/**")
+                                        .hasRole("ADMIN")
+                                        // Mover una región bloquea sus escrituras y reescribe shards enteros.
+                                        .requestMatchers(HttpMethod.POST, "/api/shards/**")
+                                        .hasRole("ADMIN")
+                                        // Archivar mueve facturas fuera de la base de datos de forma masiva.
+                                        .requestMatchers(HttpMethod.POST, "/api/archivo")
+                                        .hasRole("ADMIN")
                                         // Todas las demás solicitudes requieren autenticación.
                                         .anyRequest()
                                         .authenticated());
@@ -56,6 +75,15 @@ public class SecurityConfiguration {
                 // Configura la gestión de sesiones para que sea "stateless", es decir, sin usar sesiones del lado del servidor.
                 .sessionManagement(sessionManagement ->
                         sessionManagement.sessionCreationPolicy(SessionCreationPolicy.STATELESS))
+                // Escribe las cabeceras de seguridad antes de la cadena: con Mono/Flux la respuesta se confirma en otro
+                // hilo mientras la petición original termina, y escribirlas al final competiría con ese hilo.
+                .headers(headers -> headers.addObjectPostProcessor(new ObjectPostProcessor<HeaderWriterFilter>() {
+                    @Override
+                    public <O extends HeaderWriterFilter> O postProcess(O filtro) {
+                        filtro.setShouldWriteHeadersEagerly(true);
+                        return filtro;
+                    }
+                }))
                 // Establece el proveedor de autenticación personalizado.
                 .authenticationProvider(this.authenticationProvider)
                 // Agrega el filtro JWT personalizado antes del filtro estándar de autenticación por nombre de usuario y contraseña.
@@ -0,0 +1,48 @@
+package com.example.demo.config;
+
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Shard sobre el que trabaja el hilo actual. {@link ShardRoutingDataSource} lo consulta al pedir una
+ * conexión, así que debe fijarse antes de abrir la transacción: una vez abierta, la conexión ya está
+ * ligada a un shard y cambiar el contexto no tendría efecto.
+ */
+public final class ShardContexto {
+
+    private static final ThreadLocal<String> ACTUAL = new ThreadLocal<>();
+
+    private ShardContexto() {
+    }
+
+    /**
+     * @return Shard del hilo, o {@code null} para el principal.
+     */
+    public static String actual() {
+        return ACTUAL.get();
+    }
+
+    /**
+     * Ejecuta la acción con el shard indicado y restaura el anterior al terminar.
+     *
+     * @throws IllegalStateException Si hay una transacción abierta sobre otro shard.
+     */
+    public static <T> T ejecutar(String shard, Supplier<T> accion) {
+        String previo = ACTUAL.get();
+        if (!Objects.equals(previo, shard) && TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("No se puede cambiar al shard " + shard + " dentro de una transacción");
+        }
+        ACTUAL.set(shard);
+        try {
+            return accion.get();
+        } finally {
+            if (previo == null) {
+                ACTUAL.remove();
+            } else {
+                ACTUAL.set(previo);
+            }
+        }
+    }
+}
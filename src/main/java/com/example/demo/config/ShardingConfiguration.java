@@ -0,0 +1,83 @@
+package com.example.demo.config;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.hibernate.jpa.boot.spi.IntegratorProvider;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Con {@code facturacion.sharding.habilitado=true} reemplaza el DataSource de Spring Boot por un
+ * {@link ShardRoutingDataSource} con un pool por shard. Sin esa propiedad la aplicación usa un único
+ * DataSource como siempre.
+ */
+@Configuration
+@EnableConfigurationProperties(ShardingProperties.class)
+public class ShardingConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "facturacion.sharding.habilitado", havingValue = "true")
+    public ShardRoutingDataSource dataSource(DataSourceProperties dataSourceProperties, ShardingProperties sharding) {
+        if (sharding.getShards().size() + 1 > sharding.getMaxShards()) {
+            throw new IllegalStateException("Hay más shards que facturacion.sharding.max-shards");
+        }
+
+        Map<Object, Object> destinos = new LinkedHashMap<>();
+        HikariDataSource principal = dataSourceProperties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        destinos.put(sharding.getPrincipal(), configurarPool(principal, sharding.getPrincipal(), 0, sharding));
+
+        int indice = 1;
+        for (Map.Entry<String, ShardingProperties.Shard> shard : sharding.getShards().entrySet()) {
+            HikariDataSource pool = DataSourceBuilder.create()
+                    .type(HikariDataSource.class)
+                    .url(shard.getValue().getUrl())
+                    .username(shard.getValue().getUsername())
+                    .password(shard.getValue().getPassword())
+                    .build();
+            destinos.put(shard.getKey(), configurarPool(pool, shard.getKey(), indice++, sharding));
+        }
+
+        ShardRoutingDataSource dataSource = new ShardRoutingDataSource();
+        dataSource.setTargetDataSources(destinos);
+        dataSource.setDefaultTargetDataSource(destinos.get(sharding.getPrincipal()));
+        // Un shard desconocido es un error, no un motivo para escribir en el principal.
+        dataSource.setLenientFallback(false);
+        return dataSource;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "facturacion.sharding.habilitado", havingValue = "true")
+    public EsquemaShards esquemaShards() {
+        return new EsquemaShards();
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "facturacion.sharding.habilitado", havingValue = "true")
+    public HibernatePropertiesCustomizer esquemaShardsCustomizer(EsquemaShards esquemaShards) {
+        return properties -> properties.put("hibernate.integrator_provider",
+                (IntegratorProvider) () -> List.of(esquemaShards));
+    }
+
+    /**
+     * En MySQL los ids se intercalan entre shards con {@code auto_increment_increment/offset}: cada
+     * shard genera solo ids congruentes con su índice, así que los ids siguen siendo únicos en todo el
+     * sistema aunque una región se mueva con sus ids a otro shard.
+     */
+    private static HikariDataSource configurarPool(HikariDataSource pool, String nombre, int indice,
+                                                   ShardingProperties sharding) {
+        pool.setPoolName("shard-" + nombre);
+        if (pool.getJdbcUrl() != null && pool.getJdbcUrl().startsWith("jdbc:mysql:")) {
+            pool.setConnectionInitSql("SET SESSION auto_increment_increment = " + sharding.getMaxShards()
+                    + ", auto_increment_offset = " + (indice + 1));
+        }
+        return pool;
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Configuración del particionado de clientes y facturas por región.
+ *
+ * <p>El shard principal es el datasource de {@code spring.datasource}; además de sus regiones guarda
+ * las tablas globales (usuarios, productos, outbox de lo no particionado, trabajos de reprecio...).
+ * {@code regiones} es la ubicación deseada de cada región: al arrancar se mueven las que estén en otro
+ * shard. Las regiones sin entrada quedan en el principal.</p>
+ */
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "facturacion.sharding")
+public class ShardingProperties {
+
+    private boolean habilitado;
+
+    private String principal = "principal";
+
+    // Módulo de los ids intercalados; fija el número máximo de shards y no debe cambiar con datos.
+    private int maxShards = 16;
+
+    private boolean reubicarAlIniciar = true;
+
+    private Map<String, Shard> shards = new LinkedHashMap<>();
+
+    private Map<Long, String> regiones = new LinkedHashMap<>();
+
+    @Getter
+    @Setter
+    public static class Shard {
+
+        private String url;
+
+        // URL R2DBC del mismo shard para la API reactiva de lectura.
+        private String urlReactiva;
+
+        private String username;
+
+        private String password;
+    }
+}
@@ -0,0 +1,34 @@
+package com.example.demo.controllers;
+
+import com.example.demo.responses.ArchivadoResponse;
+import com.example.demo.responses.ArchivoResponse;
+import com.example.demo.services.AlmacenArchivoFacturas;
+import com.example.demo.services.ArchivadoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequestMapping("/api/archivo")
+@RestController
+public class ArchivoController {
+
+    private final ArchivadoService archivadoService;
+    private final AlmacenArchivoFacturas almacen;
+
+    public ArchivoController(ArchivadoService archivadoService, AlmacenArchivoFacturas almacen) {
+        this.archivadoService = archivadoService;
+        this.almacen = almacen;
+    }
+
+    @GetMapping
+    public ResponseEntity<ArchivoResponse> index() {
+        return ResponseEntity.ok(new ArchivoResponse(almacen.getSegmentos(), almacen.getFacturas(), almacen.getBytes()));
+    }
+
+    @PostMapping
+    public ResponseEntity<ArchivadoResponse> archivar() {
+        return ResponseEntity.ok(archivadoService.archivar());
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.controllers;
+
+import com.example.demo.responses.AuditoriaMetricasResponse;
+import com.example.demo.services.AuditoriaService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequestMapping("/api/auditoria")
+@RestController
+public class AuditoriaController {
+
+    private final AuditoriaService auditoriaService;
+
+    public AuditoriaController(AuditoriaService auditoriaService) {
+        this.auditoriaService = auditoriaService;
+    }
+
+    @GetMapping("/metricas")
+    public ResponseEntity<AuditoriaMetricasResponse> metricas() {
+        return ResponseEntity.ok(auditoriaService.metricas());
+    }
+}
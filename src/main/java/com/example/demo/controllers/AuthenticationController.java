@@ -1,13 +1,16 @@
 package com.example.demo.controllers;
 
 import com.example.demo.dtos.LoginUserDto;
+import com.example.demo.dtos.RefreshTokenDto;
+import com.example.demo.dtos.UsuarioDto;
 import com.example.demo.models.Usuario;
 import com.example.demo.responses.LoginResponse;
 import com.example.demo.services.AuthenticationService;
-import com.example.demo.services.JwtService;
+import com.example.demo.services.RefreshTokenService;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -16,30 +19,48 @@ import org.springframework.web.bind.annotation.RestController;
 public class AuthenticationController {
 
     private final AuthenticationService authenticationService;
-    private final JwtService jwtService;
+    private final RefreshTokenService refreshTokenService;
 
-    public AuthenticationController(AuthenticationService authenticationService,JwtService jwtService){
+    public AuthenticationController(AuthenticationService authenticationService,RefreshTokenService refreshTokenService){
         this.authenticationService= authenticationService;
-        this.jwtService= jwtService;
+        this.refreshTokenService= refreshTokenService;
 
     }
 
     @PostMapping("/signup")
-    public ResponseEntity<Usuario> register(@RequestBody Usuario usuario){
+    public ResponseEntity<UsuarioDto> register(@RequestBody Usuario usuario){
         Usuario registeredUser= authenticationService.signup(usuario);
-        return ResponseEntity.ok(registeredUser);
+        return ResponseEntity.ok(new UsuarioDto(registeredUser.getId(), registeredUser.getUsername(),
+                registeredUser.getNombre(), registeredUser.getApellido(), registeredUser.getEmail()));
     }
 
     @PostMapping("/login")
     public ResponseEntity<LoginResponse> authenticate(@RequestBody LoginUserDto loginUserDto){
         Usuario authenticatedUser= authenticationService.authenticate(loginUserDto);
-        String jwtToken= jwtService.generateToken(authenticatedUser);
-        LoginResponse loginResponse = new LoginResponse();
-        loginResponse.setToken(jwtToken);
-        loginResponse.setExpiresIn(jwtService.getExpirationTime());
+        return ResponseEntity.ok(refreshTokenService.emitir(authenticatedUser));
 
-        return ResponseEntity.ok(loginResponse);
+    }
+
+    @PostMapping("/refresh")
+    public ResponseEntity<LoginResponse> refresh(@RequestBody RefreshTokenDto refreshTokenDto){
+        return ResponseEntity.ok(refreshTokenService.rotar(refreshTokenDto.getRefreshToken()));
+    }
 
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(value = "Authorization", required = false) String authHeader,
+                                       @RequestBody(required = false) RefreshTokenDto refreshTokenDto){
+        boolean conAccessToken = authHeader != null && authHeader.startsWith("Bearer ");
+        if (!conAccessToken && refreshTokenDto == null) {
+            return ResponseEntity.badRequest().build();
+        }
+        // Primero el refresh token: es el que da acceso a largo plazo y no depende del access token
+        if (refreshTokenDto != null) {
+            refreshTokenService.revocar(refreshTokenDto.getRefreshToken());
+        }
+        if (conAccessToken) {
+            authenticationService.logout(authHeader.substring(7));
+        }
+        return ResponseEntity.noContent().build();
     }
 
 }
@@ -0,0 +1,73 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.ClienteDto;
+import com.example.demo.dtos.FacturaResumenDto;
+import com.example.demo.projections.RegionView;
+import com.example.demo.services.ClienteService;
+import com.example.demo.services.FacturaService;
+import com.example.demo.services.ShardService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequestMapping("/api")
+@RestController
+public class ClienteController {
+
+    private final ClienteService clienteService;
+    private final FacturaService facturaService;
+    private final ShardService shardService;
+
+    public ClienteController(ClienteService clienteService, FacturaService facturaService, ShardService shardService) {
+        this.clienteService = clienteService;
+        this.facturaService = facturaService;
+        this.shardService = shardService;
+    }
+
+    @GetMapping("/clientes")
+    public ResponseEntity<Page<ClienteDto>> index(Pageable pageable, WebRequest request) {
+        String etag = String.join(".", shardService.consultarTodos(() -> clienteService.etagColeccion(pageable)));
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(shardService.paginar(pageable, clienteService::findAll));
+    }
+
+    @GetMapping("/clientes/{id}")
+    public ResponseEntity<ClienteDto> show(@PathVariable Long id, WebRequest request) {
+        Optional<String> etag = shardService.enCliente(id, () -> clienteService.etag(id));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
+        return shardService.enCliente(id, () -> clienteService.findById(id))
+                .map(cliente -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(cliente))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/clientes/{id}/facturas")
+    public ResponseEntity<List<FacturaResumenDto>> facturas(@PathVariable Long id, WebRequest request) {
+        if (request.checkNotModified(shardService.enCliente(id, () -> facturaService.etagPorCliente(id)))) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache())
+                .body(shardService.enCliente(id, () -> facturaService.findByClienteId(id)));
+    }
+
+    @GetMapping("/regiones")
+    public ResponseEntity<List<RegionView>> regiones() {
+        return ResponseEntity.ok(clienteService.findAllRegiones());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaRequestDto;
+import com.example.demo.services.FacturaService;
+import com.example.demo.services.ShardService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Optional;
+
+@RequestMapping("/api/facturas")
+@RestController
+public class FacturaController {
+
+    private final FacturaService facturaService;
+    private final ShardService shardService;
+
+    public FacturaController(FacturaService facturaService, ShardService shardService) {
+        this.facturaService = facturaService;
+        this.shardService = shardService;
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<FacturaDetalleDto> show(@PathVariable Long id, WebRequest request) {
+        Optional<String> etag = shardService.enFactura(id, () -> facturaService.etagDetalle(id));
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
+        return shardService.enFactura(id, () -> facturaService.findDetalle(id))
+                .map(factura -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(factura))
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @PostMapping
+    public ResponseEntity<FacturaDetalleDto> create(@RequestBody FacturaRequestDto factura) {
+        return ResponseEntity.status(HttpStatus.CREATED)
+                .body(shardService.escribirEnCliente(factura.getClienteId(), () -> facturaService.create(factura)));
+    }
+
+    @PutMapping("/{id}")
+    public ResponseEntity<FacturaDetalleDto> update(@PathVariable Long id, @RequestBody FacturaRequestDto factura) {
+        return ResponseEntity.of(shardService.escribirEnFactura(id, () -> facturaService.update(id, factura)));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable Long id) {
+        return shardService.escribirEnFactura(id, () -> facturaService.delete(id))
+                ? ResponseEntity.noContent().build() : ResponseEntity.notFound().build();
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.controllers;
+
+import com.example.demo.projections.TasaImpuestoView;
+import com.example.demo.services.ImpuestoService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RequestMapping("/api/impuestos")
+@RestController
+public class ImpuestoController {
+
+    private final ImpuestoService impuestoService;
+
+    public ImpuestoController(ImpuestoService impuestoService) {
+        this.impuestoService = impuestoService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TasaImpuestoView>> index() {
+        return ResponseEntity.ok(impuestoService.findAllTasas());
+    }
+
+    @PostMapping("/recargar")
+    public ResponseEntity<Void> recargar() {
+        impuestoService.recargar();
+        return ResponseEntity.noContent().build();
+    }
+}
@@ -0,0 +1,24 @@
+package com.example.demo.controllers;
+
+import com.example.demo.responses.OutboxMetricasResponse;
+import com.example.demo.services.OutboxService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RequestMapping("/api/outbox")
+@RestController
+public class OutboxController {
+
+    private final OutboxService outboxService;
+
+    public OutboxController(OutboxService outboxService) {
+        this.outboxService = outboxService;
+    }
+
+    @GetMapping("/metricas")
+    public ResponseEntity<OutboxMetricasResponse> metricas() {
+        return ResponseEntity.ok(outboxService.metricas());
+    }
+}
@@ -0,0 +1,49 @@
+package com.example.demo.controllers;
+
+import com.example.demo.projections.ProductoView;
+import com.example.demo.services.ProductoService;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.List;
+import java.util.Optional;
+
+@RequestMapping("/api/productos")
+@RestController
+public class ProductoController {
+
+    private final ProductoService productoService;
+
+    public ProductoController(ProductoService productoService) {
+        this.productoService = productoService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ProductoView>> index(@RequestParam(required = false) String nombre, WebRequest request) {
+        String etag = productoService.etagColeccion(nombre);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(productoService.findAll(nombre));
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<ProductoView> show(@PathVariable Long id, WebRequest request) {
+        Optional<String> etag = productoService.etag(id);
+        if (etag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(etag.get())) {
+            return null;
+        }
+        return productoService.findById(id)
+                .map(producto -> ResponseEntity.ok().cacheControl(CacheControl.noCache()).body(producto))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.ClienteDto;
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaResumenDto;
+import com.example.demo.services.LecturaReactivaService;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * API de solo lectura que no ocupa un hilo de Tomcat mientras espera a la base de datos. Los listados
+ * se envían como NDJSON (un objeto por línea) a medida que el cliente los consume y se paginan por
+ * id con {@code desde}: para seguir, se pide {@code desde} = último id recibido.
+ */
+@RequestMapping("/api/reactive")
+@RestController
+public class ReactivoController {
+
+    private final LecturaReactivaService lecturaReactivaService;
+
+    public ReactivoController(LecturaReactivaService lecturaReactivaService) {
+        this.lecturaReactivaService = lecturaReactivaService;
+    }
+
+    @GetMapping(value = "/clientes", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<ClienteDto> clientes(@RequestParam(defaultValue = "0") long desde,
+                                     @RequestParam(defaultValue = "1000") int limite) {
+        return lecturaReactivaService.clientes(desde, limite);
+    }
+
+    @GetMapping("/clientes/{id}")
+    public Mono<ResponseEntity<ClienteDto>> cliente(@PathVariable Long id) {
+        return lecturaReactivaService.cliente(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping(value = "/clientes/{id}/facturas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FacturaResumenDto> facturasPorCliente(@PathVariable Long id,
+                                                      @RequestParam(defaultValue = "0") long desde,
+                                                      @RequestParam(defaultValue = "1000") int limite) {
+        return lecturaReactivaService.facturasPorCliente(id, desde, limite);
+    }
+
+    @GetMapping(value = "/facturas", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<FacturaResumenDto> facturas(@RequestParam(defaultValue = "0") long desde,
+                                            @RequestParam(defaultValue = "1000") int limite) {
+        return lecturaReactivaService.facturas(desde, limite);
+    }
+
+    @GetMapping("/facturas/{id}")
+    public Mono<ResponseEntity<FacturaDetalleDto>> factura(@PathVariable Long id) {
+        return lecturaReactivaService.factura(id)
+                .map(ResponseEntity::ok)
+                .defaultIfEmpty(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.ClienteVentasDto;
+import com.example.demo.dtos.VentasRegionDto;
+import com.example.demo.services.ReporteService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RequestMapping("/api/reportes")
+@RestController
+public class ReporteController {
+
+    private final ReporteService reporteService;
+
+    public ReporteController(ReporteService reporteService) {
+        this.reporteService = reporteService;
+    }
+
+    @GetMapping("/ventas-region")
+    public ResponseEntity<List<VentasRegionDto>> ventasPorRegion() {
+        return ResponseEntity.ok(reporteService.ventasPorRegion());
+    }
+
+    @GetMapping("/top-clientes")
+    public ResponseEntity<List<ClienteVentasDto>> topClientes(@RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(reporteService.topClientes(limite));
+    }
+}
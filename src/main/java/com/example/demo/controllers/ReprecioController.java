@@ -0,0 +1,58 @@
+package com.example.demo.controllers;
+
+import com.example.demo.dtos.ReprecioPorcentajeDto;
+import com.example.demo.responses.TrabajoReprecioResponse;
+import com.example.demo.services.ReprecioService;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.util.List;
+
+@RequestMapping("/api/reprecios")
+@RestController
+public class ReprecioController {
+
+    private final ReprecioService reprecioService;
+
+    public ReprecioController(ReprecioService reprecioService) {
+        this.reprecioService = reprecioService;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<TrabajoReprecioResponse>> index() {
+        return ResponseEntity.ok(reprecioService.findAll());
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<TrabajoReprecioResponse> show(@PathVariable Long id) {
+        return ResponseEntity.of(reprecioService.findById(id));
+    }
+
+    @PostMapping("/porcentaje")
+    public ResponseEntity<TrabajoReprecioResponse> porcentaje(@RequestBody ReprecioPorcentajeDto reprecio) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reprecioService.iniciarPorcentaje(reprecio));
+    }
+
+    @PostMapping("/archivo")
+    public ResponseEntity<TrabajoReprecioResponse> archivo(@RequestParam("archivo") MultipartFile archivo,
+                                                           @RequestParam(required = false) Integer trabajadores,
+                                                           @RequestParam(required = false) Integer tamanoLote)
+            throws IOException {
+        return ResponseEntity.status(HttpStatus.ACCEPTED)
+                .body(reprecioService.iniciarArchivo(archivo.getInputStream(), trabajadores, tamanoLote));
+    }
+
+    @PostMapping("/{id}/reanudar")
+    public ResponseEntity<TrabajoReprecioResponse> reanudar(@PathVariable Long id) {
+        return ResponseEntity.of(reprecioService.reanudar(id));
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.demo.controllers;
+
+import com.example.demo.repositories.ClienteRepository;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.responses.MovimientoRegionResponse;
+import com.example.demo.responses.ShardResponse;
+import com.example.demo.services.MovimientoRegionService;
+import com.example.demo.services.ShardService;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+@RequestMapping("/api/shards")
+@RestController
+public class ShardController {
+
+    private final ShardService shardService;
+    private final MovimientoRegionService movimientoRegionService;
+    private final ClienteRepository clienteRepository;
+    private final FacturaRepository facturaRepository;
+
+    public ShardController(ShardService shardService, MovimientoRegionService movimientoRegionService,
+                           ClienteRepository clienteRepository, FacturaRepository facturaRepository) {
+        this.shardService = shardService;
+        this.movimientoRegionService = movimientoRegionService;
+        this.clienteRepository = clienteRepository;
+        this.facturaRepository = facturaRepository;
+    }
+
+    @GetMapping
+    public ResponseEntity<List<ShardResponse>> index() {
+        List<long[]> conteos = shardService.consultarTodos(
+                () -> new long[]{clienteRepository.count(), facturaRepository.count()});
+        Map<Long, String> directorio = shardService.getDirectorio();
+
+        List<ShardResponse> shards = new ArrayList<>();
+        for (int i = 0; i < shardService.getShards().size(); i++) {
+            String nombre = shardService.getShards().get(i);
+            List<Long> regiones = directorio.entrySet().stream()
+                    .filter(region -> region.getValue().equals(nombre))
+                    .map(Map.Entry::getKey)
+                    .sorted()
+                    .toList();
+            shards.add(new ShardResponse(nombre, regiones, conteos.get(i)[0], conteos.get(i)[1]));
+        }
+        return ResponseEntity.ok(shards);
+    }
+
+    @PostMapping("/regiones/{regionId}/mover")
+    public ResponseEntity<MovimientoRegionResponse> mover(@PathVariable Long regionId, @RequestParam String destino) {
+        return ResponseEntity.ok(movimientoRegionService.mover(regionId, destino));
+    }
+
+    @PostMapping("/referencias/replicar")
+    public ResponseEntity<Void> replicarReferencias() {
+        shardService.replicarReferencias();
+        return ResponseEntity.noContent().build();
+    }
+}
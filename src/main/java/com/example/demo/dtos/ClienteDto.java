@@ -0,0 +1,27 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Datos de un cliente tal como los devuelve la API. Se construye directamente desde JPQL
+ * (expresión constructora), por lo que la región llega aplanada y sin proxies de Hibernate.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClienteDto {
+    private Long id;
+    private String nombre;
+    private String apellido;
+    private String email;
+    private Date createAt;
+    private String foto;
+    private Long regionId;
+    private String regionNombre;
+}
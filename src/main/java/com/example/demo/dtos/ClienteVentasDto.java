@@ -0,0 +1,25 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ClienteVentasDto {
+
+    private Long id;
+
+    private String nombre;
+
+    private String apellido;
+
+    private Long regionId;
+
+    private Long facturas;
+
+    private Double subtotal;
+}
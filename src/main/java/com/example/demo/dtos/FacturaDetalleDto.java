@@ -0,0 +1,60 @@
+package com.example.demo.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Factura completa: cabecera, cliente resumido y líneas. La cabecera se obtiene con una
+ * expresión constructora y las líneas se añaden después con una segunda consulta.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class FacturaDetalleDto {
+    private Long id;
+    private String descripcion;
+    private String observacion;
+    private Date createAt;
+    private Long clienteId;
+    private String clienteNombre;
+    private String clienteApellido;
+    private Long regionId;
+    private List<ItemFacturaDto> items = new ArrayList<>();
+
+    public FacturaDetalleDto(Long id, String descripcion, String observacion, Date createAt,
+                             Long clienteId, String clienteNombre, String clienteApellido, Long regionId) {
+        this.id = id;
+        this.descripcion = descripcion;
+        this.observacion = observacion;
+        this.createAt = createAt;
+        this.clienteId = clienteId;
+        this.clienteNombre = clienteNombre;
+        this.clienteApellido = clienteApellido;
+        this.regionId = regionId;
+    }
+
+    public Double getSubtotal() {
+        Double subtotal = 0.00;
+        for (ItemFacturaDto item : items) {
+            subtotal += item.getImporte();
+        }
+        return subtotal;
+    }
+
+    public Double getImpuestos() {
+        Double impuestos = 0.00;
+        for (ItemFacturaDto item : items) {
+            impuestos += item.getImpuesto();
+        }
+        return impuestos;
+    }
+
+    public Double getTotal() {
+        return getSubtotal() + getImpuestos();
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class FacturaRequestDto {
+    private String descripcion;
+    private String observacion;
+    private Long clienteId;
+    private List<ItemFacturaRequestDto> items = new ArrayList<>();
+}
@@ -0,0 +1,38 @@
+package com.example.demo.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Date;
+
+/**
+ * Cabecera de una factura con su subtotal calculado en la propia consulta; los impuestos se
+ * completan después en bloque con el motor de impuestos.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class FacturaResumenDto {
+    private Long id;
+    private String descripcion;
+    private String observacion;
+    private Date createAt;
+    private Long clienteId;
+    private Double subtotal;
+    private Double impuestos = 0.0;
+
+    public FacturaResumenDto(Long id, String descripcion, String observacion, Date createAt, Long clienteId,
+                             Double subtotal) {
+        this.id = id;
+        this.descripcion = descripcion;
+        this.observacion = observacion;
+        this.createAt = createAt;
+        this.clienteId = clienteId;
+        this.subtotal = subtotal;
+    }
+
+    public Double getTotal() {
+        return subtotal + impuestos;
+    }
+}
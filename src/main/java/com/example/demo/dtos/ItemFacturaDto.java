@@ -0,0 +1,39 @@
+package com.example.demo.dtos;
+
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Línea de factura con los datos del producto que la respuesta necesita.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+public class ItemFacturaDto {
+    private Long id;
+    private Integer cantidad;
+    private Long productoId;
+    private String productoNombre;
+    private String categoria;
+    private Double precio;
+    private Double tasaImpuesto = 0.0;
+
+    public ItemFacturaDto(Long id, Integer cantidad, Long productoId, String productoNombre, String categoria,
+                          Double precio) {
+        this.id = id;
+        this.cantidad = cantidad;
+        this.productoId = productoId;
+        this.productoNombre = productoNombre;
+        this.categoria = categoria;
+        this.precio = precio;
+    }
+
+    public Double getImporte() {
+        return cantidad.doubleValue() * precio;
+    }
+
+    public Double getImpuesto() {
+        return getImporte() * tasaImpuesto;
+    }
+}
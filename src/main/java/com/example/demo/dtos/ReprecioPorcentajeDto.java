@@ -0,0 +1,18 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ReprecioPorcentajeDto {
+    // Null aplica la variación a todo el catálogo.
+    private String categoria;
+    private Double porcentaje;
+    private Integer trabajadores;
+    private Integer tamanoLote;
+}
@@ -0,0 +1,21 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * Vista pública de un usuario: nunca expone la contraseña ni la colección de roles.
+ */
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class UsuarioDto {
+    private Long id;
+    private String username;
+    private String nombre;
+    private String apellido;
+    private String email;
+}
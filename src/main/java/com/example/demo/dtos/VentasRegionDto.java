@@ -0,0 +1,29 @@
+package com.example.demo.dtos;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class VentasRegionDto {
+
+    private Long regionId;
+
+    private String regionNombre;
+
+    private String shard;
+
+    private Long facturas;
+
+    private Double subtotal;
+
+    private Double impuestos;
+
+    public Double getTotal() {
+        return subtotal + impuestos;
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.demo.exceptions;
+
+/**
+ * Se rechaza una escritura porque la región de los datos se está moviendo de shard.
+ */
+public class RegionEnMovimientoException extends RuntimeException {
+
+    public RegionEnMovimientoException(Long regionId) {
+        super("La región " + regionId + " se está moviendo de shard");
+    }
+}
@@ -30,6 +30,10 @@ public class Cliente {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     @NotEmpty(message = "no puede estar vacio")
     @Size(min = 4, max = 12, message = "el tamaño tiene que estar entre 4 y 12 caracteres")
     @Column(nullable = false)
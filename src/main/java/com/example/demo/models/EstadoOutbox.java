@@ -0,0 +1,7 @@
+package com.example.demo.models;
+
+public enum EstadoOutbox {
+    PENDIENTE,
+    PROCESADO,
+    FALLIDO
+}
@@ -0,0 +1,8 @@
+package com.example.demo.models;
+
+public enum EstadoReprecio {
+    PENDIENTE,
+    EN_CURSO,
+    COMPLETADO,
+    FALLIDO
+}
@@ -0,0 +1,69 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Evento de dominio pendiente de publicar. Se inserta en la misma transacción que el cambio que lo
+ * origina, así que existe si y solo si el cambio se confirmó.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "outbox_eventos", indexes = {@Index(name = "idx_outbox_estado_id", columnList = "estado, id")})
+public class OutboxEvento {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "tipo_agregado", nullable = false, length = 40)
+    private String tipoAgregado;
+
+    @Column(name = "agregado_id", nullable = false)
+    private Long agregadoId;
+
+    @Column(name = "tipo_evento", nullable = false, length = 40)
+    private String tipoEvento;
+
+    @Column(columnDefinition = "TEXT")
+    @ToString.Exclude
+    private String payload;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private EstadoOutbox estado;
+
+    private Integer intentos;
+
+    @Column(name = "ultimo_error", length = 500)
+    private String ultimoError;
+
+    @Column(name = "create_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createAt;
+
+    @Column(name = "processed_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date processedAt;
+
+    // Tras un fallo el evento no se vuelve a reclamar hasta esta fecha.
+    @Column(name = "siguiente_intento_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date siguienteIntentoAt;
+
+    @PrePersist
+    public void prePresist() {
+        this.createAt = new Date();
+        this.siguienteIntentoAt = this.createAt;
+        this.estado = EstadoOutbox.PENDIENTE;
+        this.intentos = 0;
+    }
+}
@@ -0,0 +1,39 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Rango de ids de productos {@code (desdeId, hastaId]} de un trabajo de reprecio. {@code ultimoId}
+ * es el punto de control: todo lo que está por debajo ya se confirmó.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "particiones_reprecio", indexes = {@Index(name = "idx_particion_trabajo", columnList = "trabajo_id")})
+public class ParticionReprecio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trabajo_id", nullable = false)
+    private Long trabajoId;
+
+    @Column(name = "desde_id", nullable = false)
+    private Long desdeId;
+
+    @Column(name = "hasta_id", nullable = false)
+    private Long hastaId;
+
+    @Column(name = "ultimo_id", nullable = false)
+    private Long ultimoId;
+
+    @Column(nullable = false)
+    private Long procesados;
+}
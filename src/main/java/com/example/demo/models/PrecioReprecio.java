@@ -0,0 +1,34 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+/**
+ * Precio nuevo cargado desde un archivo, guardado antes de aplicarse para que el trabajo sea
+ * reanudable sin volver a subir el archivo.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "precios_reprecio",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"trabajo_id", "producto_id"})})
+public class PrecioReprecio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "trabajo_id", nullable = false)
+    private Long trabajoId;
+
+    @Column(name = "producto_id", nullable = false)
+    private Long productoId;
+
+    @Column(nullable = false)
+    private Double precio;
+}
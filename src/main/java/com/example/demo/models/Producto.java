@@ -18,8 +18,15 @@ public class Producto {
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
+    @Version
+    @Column(nullable = false, columnDefinition = "bigint default 0")
+    private Long version;
+
     private String nombre;
 
+    @Column(length = 30)
+    private String categoria;
+
     private Double precio;
 
     @Column(name="create_at")
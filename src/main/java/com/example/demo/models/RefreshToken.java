@@ -0,0 +1,60 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Refresh token emitido en el login. Solo se guarda el hash SHA-256 del valor entregado al cliente.
+ * Todos los tokens que nacen de un mismo login por rotación comparten {@code familia}.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "refresh_tokens", indexes = {@Index(name = "idx_refresh_familia", columnList = "familia")})
+public class RefreshToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_hash", nullable = false, unique = true, length = 64)
+    @ToString.Exclude
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "usuario_id")
+    @ToString.Exclude
+    private Usuario usuario;
+
+    @Column(nullable = false, length = 36)
+    private String familia;
+
+    // Se marca al rotarlo; volver a presentarlo después es un reuso.
+    @Column(nullable = false)
+    private Boolean usado;
+
+    @Column(nullable = false)
+    private Boolean revocado;
+
+    @Column(name = "expira_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date expiraAt;
+
+    @Column(name = "create_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createAt;
+
+    @PrePersist
+    public void prePresist() {
+        this.createAt = new Date();
+        this.usado = false;
+        this.revocado = false;
+    }
+}
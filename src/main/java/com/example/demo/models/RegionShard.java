@@ -0,0 +1,38 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Ubicación actual de una región. Vive en el shard principal y solo se modifica al mover la región.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "regiones_shard")
+public class RegionShard {
+
+    @Id
+    @Column(name = "region_id")
+    private Long regionId;
+
+    @Column(nullable = false, length = 40)
+    private String shard;
+
+    @Column(name = "update_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date updateAt;
+
+    @PrePersist
+    @PreUpdate
+    public void preGuardar() {
+        this.updateAt = new Date();
+    }
+}
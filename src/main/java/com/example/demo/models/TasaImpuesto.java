@@ -0,0 +1,30 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "tasas_impuesto",
+        uniqueConstraints = {@UniqueConstraint(columnNames = {"region_id", "categoria"})})
+public class TasaImpuesto {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "region_id", nullable = false)
+    @ToString.Exclude
+    private Region region;
+
+    // Null indica la tasa general de la región, aplicada a cualquier categoría sin tasa propia.
+    @Column(length = 30)
+    private String categoria;
+
+    @Column(nullable = false)
+    private Double tasa;
+}
@@ -0,0 +1,12 @@
+package com.example.demo.models;
+
+public enum TipoEventoAuditoria {
+    REGISTRO,
+    LOGIN,
+    LOGIN_FALLIDO,
+    LOGOUT,
+    TOKEN_RECHAZADO,
+    TOKEN_REVOCADO,
+    REFRESH_FALLIDO,
+    REFRESH_REUTILIZADO
+}
@@ -0,0 +1,8 @@
+package com.example.demo.models;
+
+public enum TipoReprecio {
+    // Variación porcentual sobre el precio actual, opcionalmente limitada a una categoría.
+    PORCENTAJE,
+    // Precios absolutos cargados desde un archivo CSV.
+    ARCHIVO
+}
@@ -0,0 +1,74 @@
+package com.example.demo.models;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.util.Date;
+
+/**
+ * Trabajo de actualización masiva de precios. El avance se guarda por partición
+ * ({@link ParticionReprecio}), de modo que un trabajo interrumpido puede reanudarse.
+ */
+@Getter
+@Setter
+@ToString
+@RequiredArgsConstructor
+@Entity
+@Table(name = "trabajos_reprecio")
+public class TrabajoReprecio {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private TipoReprecio tipo;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 12)
+    private EstadoReprecio estado;
+
+    @Column(length = 30)
+    private String categoria;
+
+    private Double porcentaje;
+
+    @Column(nullable = false)
+    private Integer trabajadores;
+
+    @Column(name = "tamano_lote", nullable = false)
+    private Integer tamanoLote;
+
+    @Column(name = "total_productos")
+    private Long totalProductos;
+
+    // Tiempo de ejecución acumulado de las ejecuciones anteriores (un trabajo reanudado suma varias).
+    @Column(name = "milisegundos_previos")
+    private Long milisegundosPrevios;
+
+    @Column(length = 500)
+    private String error;
+
+    @Column(name = "create_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date createAt;
+
+    @Column(name = "iniciado_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date iniciadoAt;
+
+    @Column(name = "finalizado_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date finalizadoAt;
+
+    @PrePersist
+    public void prePresist() {
+        this.createAt = new Date();
+        this.estado = EstadoReprecio.PENDIENTE;
+        this.milisegundosPrevios = 0L;
+    }
+}
@@ -3,6 +3,7 @@ package com.example.demo.models;
 import jakarta.persistence.*;
 import lombok.*;
 import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
 import java.util.Collection;
@@ -41,7 +42,11 @@ public class Usuario implements UserDetails {
 
     @Override
     public Collection<? extends GrantedAuthority> getAuthorities() {
-        return List.of();
+        // Los nombres de los roles ya llevan el prefijo ROLE_ que espera hasRole().
+        if (roles == null) {
+            return List.of();
+        }
+        return roles.stream().map(role -> new SimpleGrantedAuthority(role.getNombre())).toList();
     }
 
     @Override
@@ -0,0 +1,18 @@
+package com.example.demo.projections;
+
+/**
+ * Huella barata de una colección: cuántas filas hay, la suma de sus ids y la suma de sus versiones.
+ * Cualquier alta, baja o modificación cambia al menos uno de los tres valores; el máximo de versión
+ * por sí solo no basta, porque actualizar una fila con versión baja no lo mueve.
+ */
+public interface ColeccionVersionView {
+    Long getTotal();
+
+    Long getSumaIds();
+
+    Long getSumaVersiones();
+
+    default String huella() {
+        return getTotal() + "." + Long.toHexString(getSumaIds()) + "." + getSumaVersiones();
+    }
+}
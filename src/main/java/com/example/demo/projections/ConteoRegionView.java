@@ -0,0 +1,8 @@
+package com.example.demo.projections;
+
+public interface ConteoRegionView {
+
+    Long getRegionId();
+
+    Long getTotal();
+}
@@ -0,0 +1,14 @@
+package com.example.demo.projections;
+
+/**
+ * Versiones de todo lo que aparece en el detalle de una factura.
+ */
+public interface FacturaVersionView {
+    Long getVersion();
+
+    Long getClienteVersion();
+
+    Long getProductosVersion();
+
+    Long getItems();
+}
@@ -0,0 +1,20 @@
+package com.example.demo.projections;
+
+/**
+ * Línea de factura con los datos que se guardan al archivarla.
+ */
+public interface ItemArchivoView {
+    Long getFacturaId();
+
+    Long getId();
+
+    Integer getCantidad();
+
+    Long getProductoId();
+
+    String getProductoNombre();
+
+    String getCategoria();
+
+    Double getPrecio();
+}
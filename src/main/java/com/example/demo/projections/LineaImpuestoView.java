@@ -0,0 +1,16 @@
+package com.example.demo.projections;
+
+/**
+ * Línea de factura con lo mínimo necesario para calcular su impuesto.
+ */
+public interface LineaImpuestoView {
+    Long getFacturaId();
+
+    Long getRegionId();
+
+    String getCategoria();
+
+    Integer getCantidad();
+
+    Double getPrecio();
+}
@@ -0,0 +1,13 @@
+package com.example.demo.projections;
+
+/**
+ * Proyección cerrada de Spring Data: las consultas derivadas que la devuelven
+ * seleccionan únicamente estas columnas de la tabla productos.
+ */
+public interface ProductoView {
+    Long getId();
+
+    String getNombre();
+
+    Double getPrecio();
+}
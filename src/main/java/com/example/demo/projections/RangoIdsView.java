@@ -0,0 +1,9 @@
+package com.example.demo.projections;
+
+public interface RangoIdsView {
+    Long getMinId();
+
+    Long getMaxId();
+
+    Long getTotal();
+}
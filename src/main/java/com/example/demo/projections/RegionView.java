@@ -0,0 +1,10 @@
+package com.example.demo.projections;
+
+/**
+ * Proyección cerrada de una región.
+ */
+public interface RegionView {
+    Long getId();
+
+    String getNombre();
+}
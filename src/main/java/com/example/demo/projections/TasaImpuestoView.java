@@ -0,0 +1,12 @@
+package com.example.demo.projections;
+
+/**
+ * Fila de la tabla de tasas tal como la consume el motor de impuestos.
+ */
+public interface TasaImpuestoView {
+    Long getRegionId();
+
+    String getCategoria();
+
+    Double getTasa();
+}
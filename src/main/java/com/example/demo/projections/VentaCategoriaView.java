@@ -0,0 +1,10 @@
+package com.example.demo.projections;
+
+public interface VentaCategoriaView {
+
+    Long getRegionId();
+
+    String getCategoria();
+
+    Double getSubtotal();
+}
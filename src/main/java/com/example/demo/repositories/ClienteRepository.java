@@ -0,0 +1,34 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dtos.ClienteDto;
+import com.example.demo.models.Cliente;
+import com.example.demo.projections.ColeccionVersionView;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface ClienteRepository extends CrudRepository<Cliente, Long> {
+
+    @Query(value = "select new com.example.demo.dtos.ClienteDto(c.id, c.nombre, c.apellido, c.email, c.createAt, c.foto, r.id, r.nombre) " +
+            "from Cliente c left join c.region r",
+            countQuery = "select count(c) from Cliente c")
+    Page<ClienteDto> findAllDto(Pageable pageable);
+
+    @Query("select new com.example.demo.dtos.ClienteDto(c.id, c.nombre, c.apellido, c.email, c.createAt, c.foto, r.id, r.nombre) " +
+            "from Cliente c left join c.region r where c.id = :id")
+    Optional<ClienteDto> findDtoById(@Param("id") Long id);
+
+    @Query("select c.region.id from Cliente c where c.id = :id")
+    Optional<Long> findRegionIdById(@Param("id") Long id);
+
+    @Query("select c.version from Cliente c where c.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select count(c) as total, coalesce(sum(c.id), 0) as sumaIds, coalesce(sum(c.version), 0) as sumaVersiones " +
+            "from Cliente c")
+    ColeccionVersionView findColeccionVersion();
+}
@@ -0,0 +1,99 @@
+package com.example.demo.repositories;
+
+import com.example.demo.dtos.ClienteVentasDto;
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaResumenDto;
+import com.example.demo.dtos.ItemFacturaDto;
+import com.example.demo.models.Factura;
+import com.example.demo.projections.ColeccionVersionView;
+import com.example.demo.projections.ConteoRegionView;
+import com.example.demo.projections.FacturaVersionView;
+import com.example.demo.projections.ItemArchivoView;
+import com.example.demo.projections.LineaImpuestoView;
+import com.example.demo.projections.VentaCategoriaView;
+import org.springframework.data.domain.Limit;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+
+public interface FacturaRepository extends CrudRepository<Factura, Long> {
+
+    @Query("select new com.example.demo.dtos.FacturaResumenDto(f.id, f.descripcion, f.observacion, f.createAt, f.cliente.id, " +
+            "coalesce(sum(i.cantidad * p.precio), 0.0)) " +
+            "from Factura f left join f.items i left join i.producto p " +
+            "where f.cliente.id = :clienteId " +
+            "group by f.id, f.descripcion, f.observacion, f.createAt, f.cliente.id " +
+            "order by f.id")
+    List<FacturaResumenDto> findResumenByClienteId(@Param("clienteId") Long clienteId);
+
+    @Query("select new com.example.demo.dtos.FacturaDetalleDto(f.id, f.descripcion, f.observacion, f.createAt, c.id, c.nombre, c.apellido, c.region.id) " +
+            "from Factura f join f.cliente c where f.id = :id")
+    Optional<FacturaDetalleDto> findDetalleById(@Param("id") Long id);
+
+    @Query("select new com.example.demo.dtos.ItemFacturaDto(i.id, i.cantidad, p.id, p.nombre, p.categoria, p.precio) " +
+            "from Factura f join f.items i join i.producto p where f.id = :facturaId order by i.id")
+    List<ItemFacturaDto> findItemsByFacturaId(@Param("facturaId") Long facturaId);
+
+    @Query("select f.id as facturaId, c.region.id as regionId, p.categoria as categoria, i.cantidad as cantidad, p.precio as precio " +
+            "from Factura f join f.cliente c join f.items i join i.producto p where f.id in :ids order by f.id")
+    List<LineaImpuestoView> findLineasImpuesto(@Param("ids") Collection<Long> ids);
+
+    @Query("select f.version as version, c.version as clienteVersion, coalesce(sum(p.version), 0) as productosVersion, " +
+            "count(i) as items " +
+            "from Factura f join f.cliente c left join f.items i left join i.producto p " +
+            "where f.id = :id group by f.version, c.version")
+    Optional<FacturaVersionView> findVersionDetalleById(@Param("id") Long id);
+
+    @Query("select count(f) as total, coalesce(sum(f.id), 0) as sumaIds, coalesce(sum(f.version), 0) as sumaVersiones " +
+            "from Factura f where f.cliente.id = :clienteId")
+    ColeccionVersionView findColeccionVersionByClienteId(@Param("clienteId") Long clienteId);
+
+    @Query("select f.cliente.region.id from Factura f where f.id = :id")
+    Optional<Long> findRegionIdById(@Param("id") Long id);
+
+    @Query("select c.region.id as regionId, count(f) as total from Factura f join f.cliente c group by c.region.id")
+    List<ConteoRegionView> countByRegion();
+
+    @Query("select c.region.id as regionId, p.categoria as categoria, sum(i.cantidad * p.precio) as subtotal " +
+            "from Factura f join f.cliente c join f.items i join i.producto p group by c.region.id, p.categoria")
+    List<VentaCategoriaView> findVentasPorRegionYCategoria();
+
+    @Query("select new com.example.demo.dtos.ClienteVentasDto(c.id, c.nombre, c.apellido, c.region.id, " +
+            "count(distinct f.id), sum(i.cantidad * p.precio)) " +
+            "from Factura f join f.cliente c join f.items i join i.producto p " +
+            "group by c.id, c.nombre, c.apellido, c.region.id order by sum(i.cantidad * p.precio) desc, c.id")
+    List<ClienteVentasDto> findTopClientes(Limit limit);
+
+    /**
+     * Facturas más antiguas que {@code corte}, bloqueadas hasta que termine la transacción del
+     * archivado para que nadie las modifique entre la copia y el borrado.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select f from Factura f where f.createAt < :corte order by f.id")
+    List<Factura> findAnterioresA(@Param("corte") Date corte, Limit limit);
+
+    @Query("select new com.example.demo.dtos.FacturaDetalleDto(f.id, f.descripcion, f.observacion, f.createAt, c.id, c.nombre, c.apellido, c.region.id) " +
+            "from Factura f join f.cliente c where f.id in :ids order by f.id")
+    List<FacturaDetalleDto> findDetallesByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Query("select f.id as facturaId, i.id as id, i.cantidad as cantidad, p.id as productoId, p.nombre as productoNombre, " +
+            "p.categoria as categoria, p.precio as precio " +
+            "from Factura f join f.items i join i.producto p where f.id in :ids order by f.id, i.id")
+    List<ItemArchivoView> findItemsArchivoByFacturaIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from ItemFactura i where i.id in :ids")
+    int deleteItemsByIdIn(@Param("ids") Collection<Long> ids);
+
+    @Modifying
+    @Query("delete from Factura f where f.id in :ids")
+    int deleteByIdIn(@Param("ids") Collection<Long> ids);
+}
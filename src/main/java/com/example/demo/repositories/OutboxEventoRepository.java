@@ -0,0 +1,39 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.EstadoOutbox;
+import com.example.demo.models.OutboxEvento;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.List;
+
+public interface OutboxEventoRepository extends CrudRepository<OutboxEvento, Long> {
+
+    /**
+     * Reclama un lote de eventos bloqueando sus filas. El timeout -2 hace que Hibernate genere
+     * {@code FOR UPDATE SKIP LOCKED}: varios despachadores pueden consultar a la vez y cada uno
+     * se queda con filas distintas en lugar de esperar a los demás. Los eventos que esperan un
+     * reintento ({@code siguienteIntentoAt} posterior a {@code ahora}) se saltan.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints({@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2")})
+    @Query("select e from OutboxEvento e where e.estado = :estado and e.siguienteIntentoAt <= :ahora order by e.id")
+    List<OutboxEvento> findListos(@Param("estado") EstadoOutbox estado, @Param("ahora") Date ahora, Limit limit);
+
+    long countByEstado(EstadoOutbox estado);
+
+    @Query("select min(e.createAt) from OutboxEvento e where e.estado = :estado")
+    Date findOldestCreateAt(@Param("estado") EstadoOutbox estado);
+
+    @Modifying
+    @Query("delete from OutboxEvento e where e.estado = :estado and e.processedAt < :limite")
+    int deleteProcessedBefore(@Param("estado") EstadoOutbox estado, @Param("limite") Date limite);
+}
@@ -0,0 +1,22 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.ParticionReprecio;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+public interface ParticionReprecioRepository extends CrudRepository<ParticionReprecio, Long> {
+
+    List<ParticionReprecio> findByTrabajoIdOrderByDesdeId(Long trabajoId);
+
+    @Query("select coalesce(sum(p.procesados), 0) from ParticionReprecio p where p.trabajoId = :trabajoId")
+    long sumProcesadosByTrabajoId(@Param("trabajoId") Long trabajoId);
+
+    @Modifying
+    @Query("update ParticionReprecio p set p.ultimoId = :ultimoId, p.procesados = p.procesados + :filas " +
+            "where p.id = :id and p.ultimoId < :ultimoId")
+    int registrarAvance(@Param("id") Long id, @Param("ultimoId") Long ultimoId, @Param("filas") long filas);
+}
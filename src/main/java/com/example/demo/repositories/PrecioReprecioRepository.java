@@ -0,0 +1,19 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.PrecioReprecio;
+import com.example.demo.projections.RangoIdsView;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+public interface PrecioReprecioRepository extends CrudRepository<PrecioReprecio, Long> {
+
+    @Query("select min(r.productoId) as minId, max(r.productoId) as maxId, count(r) as total " +
+            "from PrecioReprecio r where r.trabajoId = :trabajoId")
+    RangoIdsView findRangoByTrabajoId(@Param("trabajoId") Long trabajoId);
+
+    @Modifying
+    @Query("delete from PrecioReprecio r where r.trabajoId = :trabajoId")
+    int deleteByTrabajoId(@Param("trabajoId") Long trabajoId);
+}
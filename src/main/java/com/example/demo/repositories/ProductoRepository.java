@@ -0,0 +1,52 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.Producto;
+import com.example.demo.projections.ColeccionVersionView;
+import com.example.demo.projections.ProductoView;
+import com.example.demo.projections.RangoIdsView;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+import java.util.Optional;
+
+public interface ProductoRepository extends CrudRepository<Producto, Long> {
+
+    List<ProductoView> findAllByOrderByNombreAsc();
+
+    List<ProductoView> findByNombreContainingIgnoreCaseOrderByNombreAsc(String nombre);
+
+    Optional<ProductoView> findProjectedById(Long id);
+
+    @Query("select p.version from Producto p where p.id = :id")
+    Optional<Long> findVersionById(@Param("id") Long id);
+
+    @Query("select count(p) as total, coalesce(sum(p.id), 0) as sumaIds, coalesce(sum(p.version), 0) as sumaVersiones " +
+            "from Producto p")
+    ColeccionVersionView findColeccionVersion();
+
+    @Query("select min(p.id) as minId, max(p.id) as maxId, count(p) as total from Producto p " +
+            "where :categoria is null or p.categoria = :categoria")
+    RangoIdsView findRangoIds(@Param("categoria") String categoria);
+
+    /**
+     * Aplica un factor a los precios de un rango de ids. Sube la versión para invalidar los ETag.
+     */
+    @Modifying
+    @Query("update Producto p set p.precio = round(p.precio * :factor, 2), p.version = p.version + 1 " +
+            "where p.id > :desde and p.id <= :hasta and (:categoria is null or p.categoria = :categoria)")
+    int aplicarFactor(@Param("factor") double factor, @Param("categoria") String categoria,
+                      @Param("desde") Long desde, @Param("hasta") Long hasta);
+
+    /**
+     * Copia a un rango de ids los precios cargados para un trabajo de reprecio.
+     */
+    @Modifying
+    @Query("update Producto p set p.precio = (select r.precio from PrecioReprecio r " +
+            "where r.trabajoId = :trabajoId and r.productoId = p.id), p.version = p.version + 1 " +
+            "where p.id > :desde and p.id <= :hasta " +
+            "and p.id in (select r.productoId from PrecioReprecio r where r.trabajoId = :trabajoId)")
+    int aplicarPrecios(@Param("trabajoId") Long trabajoId, @Param("desde") Long desde, @Param("hasta") Long hasta);
+}
@@ -0,0 +1,35 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.RefreshToken;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Date;
+import java.util.Optional;
+
+public interface RefreshTokenRepository extends CrudRepository<RefreshToken, Long> {
+
+    /**
+     * Busca por el índice único del hash y trae el usuario en la misma consulta.
+     */
+    @Query("select r from RefreshToken r join fetch r.usuario where r.tokenHash = :tokenHash")
+    Optional<RefreshToken> findByTokenHash(@Param("tokenHash") String tokenHash);
+
+    /**
+     * Marca el token como usado solo si aún no lo estaba. Devuelve 0 cuando otra petición lo rotó
+     * primero, así dos rotaciones concurrentes del mismo token no pueden tener éxito las dos.
+     */
+    @Modifying
+    @Query("update RefreshToken r set r.usado = true where r.id = :id and r.usado = false and r.revocado = false")
+    int marcarUsado(@Param("id") Long id);
+
+    @Modifying
+    @Query("update RefreshToken r set r.revocado = true where r.familia = :familia and r.revocado = false")
+    int revocarFamilia(@Param("familia") String familia);
+
+    @Modifying
+    @Query("delete from RefreshToken r where r.expiraAt < :limite")
+    int deleteExpiredBefore(@Param("limite") Date limite);
+}
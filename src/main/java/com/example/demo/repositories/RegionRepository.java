@@ -0,0 +1,12 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.Region;
+import com.example.demo.projections.RegionView;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface RegionRepository extends CrudRepository<Region, Long> {
+
+    List<RegionView> findAllByOrderByNombreAsc();
+}
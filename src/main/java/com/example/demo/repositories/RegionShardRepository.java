@@ -0,0 +1,7 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.RegionShard;
+import org.springframework.data.repository.CrudRepository;
+
+public interface RegionShardRepository extends CrudRepository<RegionShard, Long> {
+}
@@ -0,0 +1,15 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.TasaImpuesto;
+import com.example.demo.projections.TasaImpuestoView;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface TasaImpuestoRepository extends CrudRepository<TasaImpuesto, Long> {
+
+    @Query("select t.region.id as regionId, t.categoria as categoria, t.tasa as tasa " +
+            "from TasaImpuesto t order by t.region.id, t.categoria")
+    List<TasaImpuestoView> findAllTasas();
+}
@@ -0,0 +1,14 @@
+package com.example.demo.repositories;
+
+import com.example.demo.models.EstadoReprecio;
+import com.example.demo.models.TrabajoReprecio;
+import org.springframework.data.repository.CrudRepository;
+
+import java.util.List;
+
+public interface TrabajoReprecioRepository extends CrudRepository<TrabajoReprecio, Long> {
+
+    List<TrabajoReprecio> findByEstado(EstadoReprecio estado);
+
+    List<TrabajoReprecio> findAllByOrderByIdDesc();
+}
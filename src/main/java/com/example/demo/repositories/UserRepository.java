@@ -1,9 +1,12 @@
 package com.example.demo.repositories;
 import com.example.demo.models.Usuario;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.repository.CrudRepository;
 
 import java.util.Optional;
 
 public interface UserRepository extends CrudRepository<Usuario, Long> {
+    // Los roles se cargan junto al usuario: el filtro JWT lee las autoridades fuera de una transacción.
+    @EntityGraph(attributePaths = "roles")
     Optional<Usuario> findByEmail(String email);
 }
\ No newline at end of file
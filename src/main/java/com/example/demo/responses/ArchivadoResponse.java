@@ -0,0 +1,19 @@
+package com.example.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ArchivadoResponse {
+
+    private Long facturas;
+
+    private Long segmentos;
+
+    private Long milisegundos;
+}
@@ -0,0 +1,34 @@
+package com.example.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class AuditoriaMetricasResponse {
+
+    private Long encolados;
+
+    // Eventos perdidos porque la cola estaba llena.
+    private Long descartados;
+
+    // Eventos perdidos porque falló la escritura del archivo.
+    private Long perdidos;
+
+    private Long escritos;
+
+    private Long lotes;
+
+    private Integer pendientes;
+
+    // Mayor ocupación de la cola vista por el escritor; cerca de la capacidad indica que no da abasto.
+    private Integer maximoPendientes;
+
+    private Integer capacidad;
+
+    private Long rotaciones;
+}
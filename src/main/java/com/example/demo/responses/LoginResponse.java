@@ -14,4 +14,8 @@ public class LoginResponse {
     private String token;
 
     private Long expiresIn;
+
+    private String refreshToken;
+
+    private Long refreshExpiresIn;
 }
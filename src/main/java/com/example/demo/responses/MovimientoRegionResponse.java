@@ -0,0 +1,27 @@
+package com.example.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class MovimientoRegionResponse {
+
+    private Long regionId;
+
+    private String origen;
+
+    private String destino;
+
+    private Long clientes;
+
+    private Long facturas;
+
+    private Long items;
+
+    private Long milisegundos;
+}
@@ -0,0 +1,31 @@
+package com.example.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class OutboxMetricasResponse {
+
+    private Long pendientes;
+
+    private Long publicados;
+
+    private Long fallidos;
+
+    private Long reintentos;
+
+    private Long lotes;
+
+    // Antigüedad del evento pendiente más viejo, en milisegundos.
+    private Long lagPendienteMs;
+
+    // Lag medio entre la creación y la publicación de los eventos del último lote.
+    private Long lagUltimoLoteMs;
+
+    private Double eventosPorSegundo;
+}
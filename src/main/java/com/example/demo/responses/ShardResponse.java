@@ -0,0 +1,23 @@
+package com.example.demo.responses;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class ShardResponse {
+
+    private String nombre;
+
+    private List<Long> regiones;
+
+    private Long clientes;
+
+    private Long facturas;
+}
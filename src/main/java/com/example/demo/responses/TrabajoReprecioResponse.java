@@ -0,0 +1,43 @@
+package com.example.demo.responses;
+
+import com.example.demo.models.EstadoReprecio;
+import com.example.demo.models.TipoReprecio;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+@Getter
+@Setter
+@AllArgsConstructor
+@NoArgsConstructor
+public class TrabajoReprecioResponse {
+
+    private Long id;
+
+    private TipoReprecio tipo;
+
+    private EstadoReprecio estado;
+
+    private String categoria;
+
+    private Double porcentaje;
+
+    private Integer trabajadores;
+
+    private Integer tamanoLote;
+
+    private Long totalProductos;
+
+    private Long procesados;
+
+    // Porcentaje de avance, de 0 a 100.
+    private Double avance;
+
+    private Long milisegundos;
+
+    // Permite comparar trabajos lanzados con distinto número de trabajadores.
+    private Double filasPorSegundo;
+
+    private String error;
+}
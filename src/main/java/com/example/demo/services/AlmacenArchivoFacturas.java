@@ -0,0 +1,282 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+/**
+ * Almacén en disco de las facturas archivadas, formado por {@link SegmentoArchivo}s inmutables.
+ *
+ * <p>Los índices de todos los segmentos se cargan al arrancar (unos 20 bytes por factura archivada);
+ * los bloques de datos se leen solo cuando se pide una factura. Si un archivado se interrumpe después de
+ * escribir su segmento pero antes de borrar las filas, esas facturas quedan en los dos sitios y se
+ * vuelven a archivar más tarde: la lectura en caliente tiene prioridad y aquí, si un id aparece en
+ * varios segmentos, gana el más reciente. Las facturas que se borran en caliente teniendo ya una copia
+ * archivada se anotan en {@code eliminadas.ids} y dejan de leerse del archivo.</p>
+ */
+@Component
+public class AlmacenArchivoFacturas {
+
+    private static final Logger log = LoggerFactory.getLogger(AlmacenArchivoFacturas.class);
+
+    static final String ELIMINADAS = "eliminadas.ids";
+
+    // Orden de escritura: el nombre termina en el instante en que se escribió el segmento.
+    private static final Comparator<SegmentoArchivo> CRONOLOGICO = Comparator
+            .comparingLong((SegmentoArchivo segmento) -> instante(segmento.getDatos()))
+            .thenComparing(segmento -> segmento.getDatos().getFileName().toString());
+
+    private final Path directorio;
+    // Lista inmutable, de más antiguo a más reciente; se sustituye entera al publicar un segmento.
+    private volatile List<SegmentoArchivo> segmentos = List.of();
+    private final Set<Long> eliminadas = ConcurrentHashMap.newKeySet();
+    private final AtomicLong generacion = new AtomicLong();
+    private long ultimoInstante;
+
+    public AlmacenArchivoFacturas(@Value("${facturacion.archivo.directorio:data/archivo}") String directorio) {
+        this.directorio = Paths.get(directorio);
+    }
+
+    /**
+     * Abre los segmentos completos y resuelve los restos de escrituras interrumpidas: un índice temporal
+     * entero se termina de renombrar, uno incompleto se deja como está con sus datos, y los datos sin
+     * índice de ningún tipo (un segmento revertido a medio borrar) se borran.
+     */
+    @PostConstruct
+    public void cargar() throws IOException {
+        Files.createDirectories(directorio);
+        String indiceTemporal = SegmentoArchivo.EXTENSION_INDICE + SegmentoArchivo.EXTENSION_TEMPORAL;
+        for (Path archivo : listar()) {
+            if (archivo.getFileName().toString().endsWith(indiceTemporal)) {
+                if (SegmentoArchivo.recuperar(archivo) != null) {
+                    log.info("Recuperado el segmento interrumpido {}", archivo);
+                } else {
+                    log.warn("Se conserva sin cargar el segmento incompleto {}", archivo);
+                }
+            }
+        }
+
+        List<SegmentoArchivo> cargados = new ArrayList<>();
+        for (Path archivo : listar()) {
+            String nombre = archivo.getFileName().toString();
+            if (nombre.endsWith(SegmentoArchivo.EXTENSION_INDICE)) {
+                cargados.add(SegmentoArchivo.abrir(archivo));
+            } else if (nombre.endsWith(SegmentoArchivo.EXTENSION_DATOS)) {
+                String base = nombre.substring(0, nombre.length() - SegmentoArchivo.EXTENSION_DATOS.length());
+                if (!Files.exists(archivo.resolveSibling(base + SegmentoArchivo.EXTENSION_INDICE))
+                        && !Files.exists(archivo.resolveSibling(base + indiceTemporal))) {
+                    log.warn("Descartado el segmento sin índice {}", archivo);
+                    Files.deleteIfExists(archivo);
+                    SegmentoArchivo.sincronizarDirectorio(archivo);
+                }
+            }
+        }
+        cargados.sort(CRONOLOGICO);
+        segmentos = List.copyOf(cargados);
+        if (!cargados.isEmpty()) {
+            ultimoInstante = instante(cargados.get(cargados.size() - 1).getDatos());
+        }
+
+        Path ficheroEliminadas = directorio.resolve(ELIMINADAS);
+        if (Files.exists(ficheroEliminadas)) {
+            for (String linea : Files.readAllLines(ficheroEliminadas)) {
+                if (!linea.isBlank()) {
+                    eliminadas.add(Long.valueOf(linea.trim()));
+                }
+            }
+        }
+        generacion.set(segmentos.size() + eliminadas.size());
+        log.info("Cargados {} segmentos con {} facturas archivadas", segmentos.size(), getFacturas());
+    }
+
+    /**
+     * Guarda las facturas en un segmento nuevo sincronizado en disco. Dentro de una transacción el segmento
+     * solo se hace visible para las lecturas cuando se confirma, y sus archivos se borran si se revierte;
+     * fuera de ella es visible en cuanto vuelve.
+     */
+    public synchronized SegmentoArchivo escribir(List<FacturaDetalleDto> facturas) {
+        long primerId = facturas.stream().map(FacturaDetalleDto::getId).min(Comparator.naturalOrder()).orElseThrow();
+        // Instantes estrictamente crecientes: el orden de los nombres decide qué copia de un id gana.
+        ultimoInstante = Math.max(System.currentTimeMillis(), ultimoInstante + 1);
+        Path base = directorio.resolve(String.format("facturas-%019d-%d", primerId, ultimoInstante));
+        SegmentoArchivo segmento;
+        try {
+            segmento = SegmentoArchivo.escribir(base, facturas);
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo escribir el segmento " + base, e);
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publicar(segmento);
+            return segmento;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    publicar(segmento);
+                    return;
+                }
+                try {
+                    segmento.borrar();
+                } catch (IOException e) {
+                    // Sin índice no se carga nunca; cargar() termina de limpiarlo.
+                    log.warn("No se pudo borrar el segmento revertido {}", segmento.getDatos(), e);
+                }
+            }
+        });
+        return segmento;
+    }
+
+    private List<Path> listar() throws IOException {
+        try (Stream<Path> listado = Files.list(directorio)) {
+            return listado.toList();
+        }
+    }
+
+    private synchronized void publicar(SegmentoArchivo segmento) {
+        List<SegmentoArchivo> nuevos = new ArrayList<>(segmentos);
+        nuevos.add(segmento);
+        nuevos.sort(CRONOLOGICO);
+        segmentos = List.copyOf(nuevos);
+        generacion.incrementAndGet();
+    }
+
+    /**
+     * Deja de servir la copia archivada de una factura que se ha borrado en caliente. Dentro de una
+     * transacción se aplica al confirmarse.
+     */
+    public void eliminar(Long facturaId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            anotarEliminada(facturaId);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                anotarEliminada(facturaId);
+            }
+        });
+    }
+
+    private synchronized void anotarEliminada(Long facturaId) {
+        if (eliminadas.contains(facturaId)) {
+            return;
+        }
+        Path fichero = directorio.resolve(ELIMINADAS);
+        try {
+            boolean nuevo = !Files.exists(fichero);
+            Files.writeString(fichero, facturaId + "\n", StandardOpenOption.CREATE, StandardOpenOption.APPEND,
+                    StandardOpenOption.SYNC);
+            if (nuevo) {
+                SegmentoArchivo.sincronizarDirectorio(fichero);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo anotar la factura eliminada " + facturaId, e);
+        }
+        eliminadas.add(facturaId);
+        generacion.incrementAndGet();
+    }
+
+    public boolean contiene(Long facturaId) {
+        if (eliminadas.contains(facturaId)) {
+            return false;
+        }
+        for (SegmentoArchivo segmento : segmentos) {
+            if (segmento.contiene(facturaId)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Factura archivada, sin tasas de impuesto: se aplican al leerla igual que en las facturas vivas.
+     * Si está en varios segmentos se devuelve la copia más reciente.
+     */
+    public Optional<FacturaDetalleDto> buscar(Long facturaId) {
+        if (eliminadas.contains(facturaId)) {
+            return Optional.empty();
+        }
+        List<SegmentoArchivo> actuales = segmentos;
+        for (int i = actuales.size() - 1; i >= 0; i--) {
+            SegmentoArchivo segmento = actuales.get(i);
+            if (segmento.contiene(facturaId)) {
+                try {
+                    return Optional.ofNullable(segmento.buscar(facturaId));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("No se pudo leer " + segmento.getDatos(), e);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Facturas archivadas de un cliente, ordenadas por id, con la copia más reciente de cada una.
+     */
+    public List<FacturaDetalleDto> buscarPorCliente(Long clienteId) {
+        Map<Long, FacturaDetalleDto> facturas = new TreeMap<>();
+        for (SegmentoArchivo segmento : segmentos) {
+            try {
+                segmento.buscarPorCliente(clienteId).forEach(factura -> facturas.put(factura.getId(), factura));
+            } catch (IOException e) {
+                throw new UncheckedIOException("No se pudo leer " + segmento.getDatos(), e);
+            }
+        }
+        facturas.keySet().removeAll(eliminadas);
+        return List.copyOf(facturas.values());
+    }
+
+    /**
+     * Cambia cada vez que se publica un segmento o se elimina una factura archivada; forma parte de los
+     * ETag de las listas de facturas.
+     */
+    public long getGeneracion() {
+        return generacion.get();
+    }
+
+    public int getSegmentos() {
+        return segmentos.size();
+    }
+
+    public long getFacturas() {
+        return segmentos.stream().mapToLong(SegmentoArchivo::getFacturas).sum();
+    }
+
+    public long getBytes() {
+        return segmentos.stream().mapToLong(SegmentoArchivo::getBytes).sum();
+    }
+
+    private static long instante(Path datos) {
+        String nombre = datos.getFileName().toString();
+        String sinExtension = nombre.substring(0, nombre.length() - SegmentoArchivo.EXTENSION_DATOS.length());
+        try {
+            return Long.parseLong(sinExtension.substring(sinExtension.lastIndexOf('-') + 1));
+        } catch (NumberFormatException e) {
+            return 0;
+        }
+    }
+}
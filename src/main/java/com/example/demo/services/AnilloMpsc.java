@@ -0,0 +1,103 @@
+package com.example.demo.services;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+/**
+ * Cola circular acotada sin cerrojos para muchos productores y un solo consumidor.
+ *
+ * <p>Cada hueco lleva un número de secuencia que dice de quién es el turno: un productor reserva una
+ * posición con un CAS sobre la cola, escribe el elemento y publica el hueco avanzando su secuencia; el
+ * consumidor solo lee huecos ya publicados y los devuelve a los productores de la siguiente vuelta. Si
+ * la cola está llena {@link #ofrecer} devuelve {@code false} enseguida en lugar de esperar.</p>
+ */
+public final class AnilloMpsc<T> {
+
+    private final int capacidad;
+    private final int mascara;
+    private final AtomicReferenceArray<T> elementos;
+    private final AtomicLongArray secuencias;
+    private final AtomicLong cola = new AtomicLong();
+    // Solo la escribe el consumidor; es volatile para que los productores puedan leer la ocupación.
+    private volatile long cabeza;
+
+    /**
+     * @param capacidad Número mínimo de huecos; se redondea a la siguiente potencia de dos.
+     */
+    public AnilloMpsc(int capacidad) {
+        if (capacidad < 2 || capacidad > (1 << 30)) {
+            throw new IllegalArgumentException("Capacidad fuera de rango: " + capacidad);
+        }
+        this.capacidad = Integer.highestOneBit(capacidad - 1) << 1;
+        this.mascara = this.capacidad - 1;
+        this.elementos = new AtomicReferenceArray<>(this.capacidad);
+        this.secuencias = new AtomicLongArray(this.capacidad);
+        for (int i = 0; i < this.capacidad; i++) {
+            secuencias.set(i, i);
+        }
+    }
+
+    /**
+     * Encola un elemento si hay sitio. Puede llamarse desde cualquier hilo.
+     *
+     * @return {@code false} si la cola estaba llena.
+     */
+    public boolean ofrecer(T elemento) {
+        long posicion = cola.get();
+        while (true) {
+            int indice = (int) posicion & mascara;
+            long diferencia = secuencias.get(indice) - posicion;
+            if (diferencia == 0) {
+                if (cola.compareAndSet(posicion, posicion + 1)) {
+                    elementos.setRelease(indice, elemento);
+                    secuencias.setRelease(indice, posicion + 1);
+                    return true;
+                }
+                posicion = cola.get();
+            } else if (diferencia < 0) {
+                return false;
+            } else {
+                // Otro productor ya reservó esta posición.
+                posicion = cola.get();
+            }
+        }
+    }
+
+    /**
+     * Saca hasta {@code maximo} elementos en orden de publicación. Solo debe llamarlo el consumidor.
+     *
+     * @return Número de elementos entregados.
+     */
+    public int drenar(Consumer<? super T> consumidor, int maximo) {
+        long actual = cabeza;
+        int entregados = 0;
+        while (entregados < maximo) {
+            int indice = (int) actual & mascara;
+            if (secuencias.get(indice) != actual + 1) {
+                // Vacía, o el productor de este hueco aún no lo ha publicado.
+                break;
+            }
+            T elemento = elementos.get(indice);
+            elementos.setRelease(indice, null);
+            secuencias.setRelease(indice, actual + capacidad);
+            actual++;
+            consumidor.accept(elemento);
+            entregados++;
+        }
+        cabeza = actual;
+        return entregados;
+    }
+
+    /**
+     * Elementos reservados y aún no consumidos; aproximado mientras haya productores activos.
+     */
+    public int getPendientes() {
+        return (int) Math.max(0, Math.min(capacidad, cola.get() - cabeza));
+    }
+
+    public int getCapacidad() {
+        return capacidad;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.demo.services;
+
+import com.example.demo.config.ShardContexto;
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.ItemFacturaDto;
+import com.example.demo.models.Factura;
+import com.example.demo.projections.ItemArchivoView;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.responses.ArchivadoResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Saca de {@code facturas} y {@code facturas_items} las facturas con más de
+ * {@code facturacion.archivo.dias} días y las guarda en el {@link AlmacenArchivoFacturas}.
+ *
+ * <p>Trabaja por lotes, cada uno en su transacción: bloquea las facturas del lote, las escribe en un
+ * segmento sincronizado en disco y solo entonces las borra. El segmento se hace visible al confirmarse
+ * la transacción y se borra si se revierte. Las facturas archivadas se siguen leyendo
+ * por id y por cliente desde {@link FacturaService}, pero ya no se pueden modificar ni cuentan en los
+ * informes. Con sharding se archiva shard por shard.</p>
+ */
+@Service
+public class ArchivadoService {
+
+    private static final Logger log = LoggerFactory.getLogger(ArchivadoService.class);
+
+    private final FacturaRepository facturaRepository;
+    private final AlmacenArchivoFacturas almacen;
+    private final ShardService shardService;
+    private final TransactionTemplate transactionTemplate;
+    private final int dias;
+    private final int tamanoLote;
+
+    public ArchivadoService(FacturaRepository facturaRepository,
+                            AlmacenArchivoFacturas almacen,
+                            ShardService shardService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${facturacion.archivo.dias:365}") int dias,
+                            @Value("${facturacion.archivo.lote:500}") int tamanoLote) {
+        this.facturaRepository = facturaRepository;
+        this.almacen = almacen;
+        this.shardService = shardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.dias = dias;
+        this.tamanoLote = tamanoLote;
+    }
+
+    @Scheduled(cron = "${facturacion.archivo.cron:0 0 4 * * *}")
+    public void programado() {
+        ArchivadoResponse resultado = archivar();
+        if (resultado.getFacturas() > 0) {
+            log.info("Archivadas {} facturas en {} segmentos ({} ms)", resultado.getFacturas(),
+                    resultado.getSegmentos(), resultado.getMilisegundos());
+        }
+    }
+
+    /**
+     * Archiva todas las facturas anteriores al corte, lote a lote hasta que un lote llega incompleto.
+     */
+    public synchronized ArchivadoResponse archivar() {
+        long inicio = System.currentTimeMillis();
+        Date corte = Date.from(LocalDate.now().minusDays(dias).atStartOfDay(ZoneId.systemDefault()).toInstant());
+
+        long facturas = 0;
+        long segmentos = 0;
+        for (String shard : shardService.getShards()) {
+            int archivadas;
+            do {
+                archivadas = ShardContexto.ejecutar(shard, () -> archivarLote(corte));
+                facturas += archivadas;
+                segmentos += archivadas > 0 ? 1 : 0;
+            } while (archivadas == tamanoLote);
+        }
+        return new ArchivadoResponse(facturas, segmentos, System.currentTimeMillis() - inicio);
+    }
+
+    private int archivarLote(Date corte) {
+        Integer archivadas = transactionTemplate.execute(status -> {
+            List<Long> ids = facturaRepository.findAnterioresA(corte, Limit.of(tamanoLote)).stream()
+                    .map(Factura::getId)
+                    .toList();
+            if (ids.isEmpty()) {
+                return 0;
+            }
+
+            List<FacturaDetalleDto> facturas = facturaRepository.findDetallesByIdIn(ids);
+            Map<Long, FacturaDetalleDto> porId = new HashMap<>();
+            facturas.forEach(factura -> porId.put(factura.getId(), factura));
+            List<ItemArchivoView> items = facturaRepository.findItemsArchivoByFacturaIdIn(ids);
+            for (ItemArchivoView item : items) {
+                porId.get(item.getFacturaId()).getItems().add(new ItemFacturaDto(item.getId(), item.getCantidad(),
+                        item.getProductoId(), item.getProductoNombre(), item.getCategoria(), item.getPrecio()));
+            }
+
+            almacen.escribir(facturas);
+
+            if (!items.isEmpty()) {
+                facturaRepository.deleteItemsByIdIn(items.stream().map(ItemArchivoView::getId).toList());
+            }
+            facturaRepository.deleteByIdIn(ids);
+            return ids.size();
+        });
+        return archivadas == null ? 0 : archivadas;
+    }
+}
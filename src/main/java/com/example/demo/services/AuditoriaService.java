@@ -0,0 +1,226 @@
+package com.example.demo.services;
+
+import com.example.demo.models.TipoEventoAuditoria;
+import com.example.demo.responses.AuditoriaMetricasResponse;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+/**
+ * Log de auditoría de los eventos de autenticación (registros, logins, fallos, tokens rechazados).
+ *
+ * <p>{@link #registrar} solo crea el evento y lo deja en un {@link AnilloMpsc}; no toma cerrojos ni
+ * toca el disco. Un único hilo escritor vacía la cola por lotes, escribe una línea JSON por evento en
+ * un archivo de solo anexado y hace un solo flush por lote. El archivo rota al superar
+ * {@code facturacion.auditoria.tamano-maximo} y se conservan los {@code archivos} más recientes.</p>
+ *
+ * <p>Si la cola se llena la petición no espera: el evento se descarta y se cuenta. Los contadores de
+ * {@link #metricas()} permiten ver si el escritor no da abasto antes de que se pierdan eventos.</p>
+ */
+@Service
+public class AuditoriaService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditoriaService.class);
+
+    private static final DateTimeFormatter SUFIJO_ROTACION = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss-SSS");
+
+    private final ObjectMapper objectMapper;
+    private final AnilloMpsc<EventoAuditoria> anillo;
+    private final Path archivo;
+    private final long tamanoMaximo;
+    private final int maxArchivos;
+    private final int tamanoLote;
+    private final long esperaNanos;
+
+    // LongAdder en lo que cuentan los hilos de las peticiones, para no competir por una sola celda.
+    private final LongAdder encolados = new LongAdder();
+    private final LongAdder descartados = new LongAdder();
+    private final AtomicLong perdidos = new AtomicLong();
+    private final AtomicLong escritos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong rotaciones = new AtomicLong();
+    private volatile int maximoPendientes;
+
+    private volatile boolean activo;
+    private Thread escritor;
+    private OutputStream salida;
+    private long tamanoActual;
+
+    public AuditoriaService(ObjectMapper objectMapper,
+                            @Value("${facturacion.auditoria.archivo:data/auditoria/auditoria.log}") String archivo,
+                            @Value("${facturacion.auditoria.capacidad:65536}") int capacidad,
+                            @Value("${facturacion.auditoria.lote:512}") int tamanoLote,
+                            @Value("${facturacion.auditoria.tamano-maximo:10485760}") long tamanoMaximo,
+                            @Value("${facturacion.auditoria.archivos:10}") int maxArchivos,
+                            @Value("${facturacion.auditoria.espera-ms:100}") long esperaMs) {
+        this.objectMapper = objectMapper;
+        this.anillo = new AnilloMpsc<>(capacidad);
+        this.archivo = Paths.get(archivo);
+        this.tamanoLote = tamanoLote;
+        this.tamanoMaximo = tamanoMaximo;
+        this.maxArchivos = maxArchivos;
+        this.esperaNanos = esperaMs * 1_000_000;
+    }
+
+    @PostConstruct
+    public void iniciar() throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        abrir();
+        activo = true;
+        escritor = new Thread(this::escribirEnBucle, "auditoria-escritor");
+        escritor.setDaemon(true);
+        escritor.start();
+    }
+
+    /**
+     * Termina de escribir lo pendiente y cierra el archivo.
+     */
+    @PreDestroy
+    public void detener() throws InterruptedException {
+        activo = false;
+        LockSupport.unpark(escritor);
+        escritor.join(10_000);
+    }
+
+    /**
+     * Encola un evento; nunca bloquea. La IP se toma de la petición en curso, si la hay.
+     *
+     * @param usuario Email del usuario, si se conoce.
+     * @param detalle Información adicional, como el motivo de un rechazo.
+     */
+    public void registrar(TipoEventoAuditoria tipo, String usuario, String detalle) {
+        String ip = null;
+        RequestAttributes atributos = RequestContextHolder.getRequestAttributes();
+        if (atributos instanceof ServletRequestAttributes servlet) {
+            ip = servlet.getRequest().getRemoteAddr();
+        }
+        if (anillo.ofrecer(new EventoAuditoria(Instant.now(), tipo, usuario, ip, detalle))) {
+            encolados.increment();
+        } else {
+            descartados.increment();
+        }
+    }
+
+    public AuditoriaMetricasResponse metricas() {
+        return new AuditoriaMetricasResponse(encolados.sum(), descartados.sum(), perdidos.get(), escritos.get(),
+                lotes.get(), anillo.getPendientes(), maximoPendientes, anillo.getCapacidad(), rotaciones.get());
+    }
+
+    private void escribirEnBucle() {
+        List<EventoAuditoria> lote = new ArrayList<>(tamanoLote);
+        while (true) {
+            int pendientes = anillo.getPendientes();
+            if (pendientes > maximoPendientes) {
+                maximoPendientes = pendientes;
+            }
+            lote.clear();
+            anillo.drenar(lote::add, tamanoLote);
+            if (lote.isEmpty()) {
+                if (!activo) {
+                    break;
+                }
+                LockSupport.parkNanos(esperaNanos);
+                continue;
+            }
+            escribir(lote);
+        }
+        try {
+            if (salida != null) {
+                salida.close();
+            }
+        } catch (IOException e) {
+            log.error("No se pudo cerrar {}", archivo, e);
+        }
+    }
+
+    private void escribir(List<EventoAuditoria> eventos) {
+        try {
+            // Una rotación fallida puede dejar el archivo sin abrir: se reintenta en cada lote.
+            if (salida == null) {
+                abrir();
+            }
+            for (EventoAuditoria evento : eventos) {
+                byte[] linea = objectMapper.writeValueAsBytes(evento);
+                salida.write(linea);
+                salida.write('\n');
+                tamanoActual += linea.length + 1;
+            }
+            salida.flush();
+            escritos.addAndGet(eventos.size());
+            lotes.incrementAndGet();
+        } catch (IOException e) {
+            perdidos.addAndGet(eventos.size());
+            log.error("No se pudieron escribir {} eventos de auditoría en {}", eventos.size(), archivo, e);
+            return;
+        }
+        if (tamanoActual >= tamanoMaximo) {
+            try {
+                rotar();
+            } catch (IOException e) {
+                log.error("No se pudo rotar {}", archivo, e);
+            }
+        }
+    }
+
+    private void rotar() throws IOException {
+        OutputStream anterior = salida;
+        salida = null;
+        String nombre = archivo.getFileName().toString();
+        try {
+            anterior.close();
+            Path rotado = archivo.resolveSibling(nombre + "." + LocalDateTime.now().format(SUFIJO_ROTACION));
+            Files.move(archivo, rotado, StandardCopyOption.ATOMIC_MOVE);
+            rotaciones.incrementAndGet();
+        } finally {
+            // Si el movimiento falla se sigue anexando al mismo archivo y la rotación se reintenta con el
+            // próximo lote; si falla la apertura, escribir() la reintenta.
+            abrir();
+        }
+
+        Path directorio = archivo.toAbsolutePath().getParent();
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            List<Path> antiguos = archivos
+                    .filter(ruta -> ruta.getFileName().toString().startsWith(nombre + "."))
+                    .sorted(Comparator.comparing(Path::getFileName).reversed())
+                    .skip(maxArchivos)
+                    .toList();
+            for (Path antiguo : antiguos) {
+                Files.deleteIfExists(antiguo);
+            }
+        }
+    }
+
+    private void abrir() throws IOException {
+        salida = new BufferedOutputStream(Files.newOutputStream(archivo,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND), 64 * 1024);
+        tamanoActual = Files.size(archivo);
+    }
+}
@@ -3,13 +3,19 @@ package com.example.demo.services;
 import com.example.demo.dtos.LoginUserDto;
 import com.example.demo.dtos.RegisterUserDto;
 import com.example.demo.models.Role;
+import com.example.demo.models.TipoEventoAuditoria;
 import com.example.demo.models.Usuario;
 import com.example.demo.repositories.UserRepository;
 import com.example.demo.repositories.UserRoleRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
@@ -22,15 +28,23 @@ public class AuthenticationService {
     private final AuthenticationManager authenticationManager;
     private final PasswordEncoder passwordEncoder;
     private final UserRoleRepository userRoleRepository;
+    private final JwtService jwtService;
+    private final RevocacionTokenService revocacionTokenService;
+    private final AuditoriaService auditoriaService;
 
     public AuthenticationService(UserRepository userRepository, UserRoleRepository userRoleRepository, AuthenticationManager authenticationManager,
-                                 PasswordEncoder passwordEncoder) {
+                                 PasswordEncoder passwordEncoder, JwtService jwtService,
+                                 RevocacionTokenService revocacionTokenService, AuditoriaService auditoriaService) {
         this.userRepository = userRepository;
         this.authenticationManager = authenticationManager;
         this.passwordEncoder = passwordEncoder;
         this.userRoleRepository= userRoleRepository;
+        this.jwtService = jwtService;
+        this.revocacionTokenService = revocacionTokenService;
+        this.auditoriaService = auditoriaService;
     }
 
+    @Transactional
     public Usuario signup(Usuario input){
         Usuario usuario= new Usuario();
         Optional<Role> role = userRoleRepository.findById(1L);
@@ -48,17 +62,43 @@ public class AuthenticationService {
         usuario.setApellido(input.getApellido());
         usuario.setEmail(input.getEmail());
 
-        return  userRepository.save(usuario);
+        Usuario registrado = userRepository.save(usuario);
+        auditoriaService.registrar(TipoEventoAuditoria.REGISTRO, registrado.getEmail(), null);
+        return registrado;
 
     }
 
     public Usuario authenticate(LoginUserDto input){
-        authenticationManager
-                .authenticate(new UsernamePasswordAuthenticationToken(input.getEmail(),input.getPassword()));
+        try {
+            authenticationManager
+                    .authenticate(new UsernamePasswordAuthenticationToken(input.getEmail(),input.getPassword()));
+        } catch (AuthenticationException e) {
+            auditoriaService.registrar(TipoEventoAuditoria.LOGIN_FALLIDO, input.getEmail(), e.getClass().getSimpleName());
+            throw e;
+        }
 
+        auditoriaService.registrar(TipoEventoAuditoria.LOGIN, input.getEmail(), null);
         return userRepository.findByEmail(input.getEmail()).orElseThrow();
     }
 
+    /**
+     * Revoca el access token. Uno expirado o inválido ya no da acceso, así que no se revoca y el logout
+     * sigue adelante; si solo está expirado, su firma es válida y el logout se audita igualmente.
+     */
+    public void logout(String jwt){
+        Claims claims;
+        try {
+            claims = jwtService.extractAllClaims(jwt);
+        } catch (ExpiredJwtException e) {
+            auditoriaService.registrar(TipoEventoAuditoria.LOGOUT, e.getClaims().getSubject(), "token expirado");
+            return;
+        } catch (JwtException e) {
+            return;
+        }
+        revocacionTokenService.revocarToken(claims.getId(), claims.getExpiration());
+        auditoriaService.registrar(TipoEventoAuditoria.LOGOUT, claims.getSubject(), null);
+    }
+
 
 
 
@@ -0,0 +1,51 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.ClienteDto;
+import com.example.demo.projections.RegionView;
+import com.example.demo.repositories.ClienteRepository;
+import com.example.demo.repositories.RegionRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional(readOnly = true)
+public class ClienteService {
+
+    private final ClienteRepository clienteRepository;
+    private final RegionRepository regionRepository;
+
+    public ClienteService(ClienteRepository clienteRepository, RegionRepository regionRepository) {
+        this.clienteRepository = clienteRepository;
+        this.regionRepository = regionRepository;
+    }
+
+    public Page<ClienteDto> findAll(Pageable pageable) {
+        return clienteRepository.findAllDto(pageable);
+    }
+
+    public Optional<ClienteDto> findById(Long id) {
+        return clienteRepository.findDtoById(id);
+    }
+
+    /**
+     * La página, el tamaño y el orden entran como SHA-256: con un hash de 32 bits dos paginaciones
+     * distintas podrían compartir ETag y recibir un 304 con el cuerpo de la otra.
+     */
+    public String etagColeccion(Pageable pageable) {
+        return "clientes-" + clienteRepository.findColeccionVersion().huella() + "-"
+                + Huellas.sha256(pageable.getPageNumber() + "|" + pageable.getPageSize() + "|" + pageable.getSort());
+    }
+
+    public Optional<String> etag(Long id) {
+        return clienteRepository.findVersionById(id).map(version -> "cliente-" + id + "-" + version);
+    }
+
+    public List<RegionView> findAllRegiones() {
+        return regionRepository.findAllByOrderByNombreAsc();
+    }
+}
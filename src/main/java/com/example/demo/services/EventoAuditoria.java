@@ -0,0 +1,20 @@
+package com.example.demo.services;
+
+import com.example.demo.models.TipoEventoAuditoria;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.time.Instant;
+
+/**
+ * Evento de autenticación tal como se escribe, una línea JSON por evento, en el log de auditoría.
+ */
+@Getter
+@AllArgsConstructor
+public class EventoAuditoria {
+    private Instant fecha;
+    private TipoEventoAuditoria tipo;
+    private String usuario;
+    private String ip;
+    private String detalle;
+}
@@ -0,0 +1,200 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaRequestDto;
+import com.example.demo.dtos.FacturaResumenDto;
+import com.example.demo.dtos.ItemFacturaDto;
+import com.example.demo.dtos.ItemFacturaRequestDto;
+import com.example.demo.models.Cliente;
+import com.example.demo.models.Factura;
+import com.example.demo.models.ItemFactura;
+import com.example.demo.models.Producto;
+import com.example.demo.repositories.ClienteRepository;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.repositories.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Service
+@Transactional(readOnly = true)
+public class FacturaService {
+
+    public static final String AGREGADO = "Factura";
+    public static final String FACTURA_CREADA = "FACTURA_CREADA";
+    public static final String FACTURA_ACTUALIZADA = "FACTURA_ACTUALIZADA";
+    public static final String FACTURA_ELIMINADA = "FACTURA_ELIMINADA";
+
+    private final FacturaRepository facturaRepository;
+    private final ClienteRepository clienteRepository;
+    private final ProductoRepository productoRepository;
+    private final ImpuestoService impuestoService;
+    private final OutboxService outboxService;
+    private final AlmacenArchivoFacturas almacenArchivo;
+
+    public FacturaService(FacturaRepository facturaRepository, ClienteRepository clienteRepository,
+                          ProductoRepository productoRepository, ImpuestoService impuestoService,
+                          OutboxService outboxService, AlmacenArchivoFacturas almacenArchivo) {
+        this.facturaRepository = facturaRepository;
+        this.clienteRepository = clienteRepository;
+        this.productoRepository = productoRepository;
+        this.impuestoService = impuestoService;
+        this.outboxService = outboxService;
+        this.almacenArchivo = almacenArchivo;
+    }
+
+    /**
+     * Facturas de un cliente, incluidas las archivadas, ordenadas por id.
+     */
+    public List<FacturaResumenDto> findByClienteId(Long clienteId) {
+        List<FacturaResumenDto> facturas = facturaRepository.findResumenByClienteId(clienteId);
+        Map<Long, Double> impuestos = impuestoService.calcularImpuestos(
+                facturas.stream().map(FacturaResumenDto::getId).toList());
+        facturas.forEach(factura -> factura.setImpuestos(impuestos.getOrDefault(factura.getId(), 0.0)));
+
+        List<FacturaDetalleDto> archivadas = almacenArchivo.buscarPorCliente(clienteId);
+        if (archivadas.isEmpty()) {
+            return facturas;
+        }
+        Map<Long, FacturaResumenDto> todas = new TreeMap<>();
+        for (FacturaDetalleDto archivada : archivadas) {
+            FacturaDetalleDto factura = aplicarTasas(archivada);
+            FacturaResumenDto resumen = new FacturaResumenDto(factura.getId(), factura.getDescripcion(),
+                    factura.getObservacion(), factura.getCreateAt(), factura.getClienteId(), factura.getSubtotal());
+            resumen.setImpuestos(factura.getImpuestos());
+            todas.put(resumen.getId(), resumen);
+        }
+        facturas.forEach(factura -> todas.put(factura.getId(), factura));
+        return new ArrayList<>(todas.values());
+    }
+
+    /**
+     * Detalle de una factura; si ya no está en las tablas se busca en el archivo.
+     */
+    public Optional<FacturaDetalleDto> findDetalle(Long id) {
+        Optional<FacturaDetalleDto> detalle = facturaRepository.findDetalleById(id);
+        if (detalle.isEmpty()) {
+            return almacenArchivo.buscar(id).map(this::aplicarTasas);
+        }
+        FacturaDetalleDto factura = detalle.get();
+        factura.setItems(facturaRepository.findItemsByFacturaId(id));
+        return Optional.of(aplicarTasas(factura));
+    }
+
+    /**
+     * ETag del detalle: cambia con la factura, su cliente, los productos de sus líneas o las tasas.
+     */
+    public Optional<String> etagDetalle(Long id) {
+        Optional<String> etag = facturaRepository.findVersionDetalleById(id).map(v -> "factura-" + id + "-"
+                + v.getVersion() + "." + v.getClienteVersion() + "." + v.getItems() + "." + v.getProductosVersion()
+                + "." + impuestoService.getGeneracion());
+        if (etag.isEmpty() && almacenArchivo.contiene(id)) {
+            // Una factura archivada ya no cambia; solo pueden cambiar las tasas.
+            return Optional.of("factura-" + id + "-archivada." + impuestoService.getGeneracion());
+        }
+        return etag;
+    }
+
+    public String etagPorCliente(Long clienteId) {
+        return "facturas-" + clienteId + "-" + facturaRepository.findColeccionVersionByClienteId(clienteId).huella()
+                + "-" + productoRepository.findColeccionVersion().huella() + "-" + impuestoService.getGeneracion()
+                + "-" + almacenArchivo.getGeneracion();
+    }
+
+    @Transactional
+    public FacturaDetalleDto create(FacturaRequestDto input) {
+        Cliente cliente = clienteRepository.findById(input.getClienteId())
+                .orElseThrow(() -> new IllegalArgumentException("Cliente no encontrado: " + input.getClienteId()));
+
+        Factura factura = new Factura();
+        factura.setCliente(cliente);
+        copiarDatos(input, factura);
+        facturaRepository.save(factura);
+
+        outboxService.registrar(AGREGADO, factura.getId(), FACTURA_CREADA, payload(factura));
+        return findDetalle(factura.getId()).orElseThrow();
+    }
+
+    @Transactional
+    public Optional<FacturaDetalleDto> update(Long id, FacturaRequestDto input) {
+        Optional<Factura> encontrada = facturaRepository.findById(id);
+        if (encontrada.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Factura factura = encontrada.get();
+        copiarDatos(input, factura);
+        facturaRepository.save(factura);
+
+        outboxService.registrar(AGREGADO, factura.getId(), FACTURA_ACTUALIZADA, payload(factura));
+        return findDetalle(id);
+    }
+
+    @Transactional
+    public boolean delete(Long id) {
+        Optional<Factura> encontrada = facturaRepository.findById(id);
+        if (encontrada.isEmpty()) {
+            return false;
+        }
+
+        Factura factura = encontrada.get();
+        Map<String, Object> payload = payload(factura);
+        facturaRepository.delete(factura);
+        // Una copia archivada por un archivado interrumpido no debe resucitar la factura.
+        if (almacenArchivo.contiene(id)) {
+            almacenArchivo.eliminar(id);
+        }
+
+        outboxService.registrar(AGREGADO, id, FACTURA_ELIMINADA, payload);
+        return true;
+    }
+
+    private void copiarDatos(FacturaRequestDto input, Factura factura) {
+        factura.setDescripcion(input.getDescripcion());
+        factura.setObservacion(input.getObservacion());
+
+        Map<Long, Producto> productos = new HashMap<>();
+        productoRepository.findAllById(input.getItems().stream().map(ItemFacturaRequestDto::getProductoId).toList())
+                .forEach(producto -> productos.put(producto.getId(), producto));
+
+        factura.getItems().clear();
+        for (ItemFacturaRequestDto itemInput : input.getItems()) {
+            Producto producto = productos.get(itemInput.getProductoId());
+            if (producto == null) {
+                throw new IllegalArgumentException("Producto no encontrado: " + itemInput.getProductoId());
+            }
+            if (itemInput.getCantidad() == null || itemInput.getCantidad() <= 0) {
+                throw new IllegalArgumentException("Cantidad inválida para el producto " + itemInput.getProductoId());
+            }
+            ItemFactura item = new ItemFactura();
+            item.setProducto(producto);
+            item.setCantidad(itemInput.getCantidad());
+            factura.getItems().add(item);
+        }
+    }
+
+    private FacturaDetalleDto aplicarTasas(FacturaDetalleDto factura) {
+        TablaImpuestos tabla = impuestoService.getTabla();
+        long region = impuestoService.regionImpuestos(factura.getRegionId());
+        for (ItemFacturaDto item : factura.getItems()) {
+            item.setTasaImpuesto(tabla.tasa(region, tabla.indiceCategoria(item.getCategoria())));
+        }
+        return factura;
+    }
+
+    private Map<String, Object> payload(Factura factura) {
+        Map<String, Object> payload = new LinkedHashMap<>();
+        payload.put("facturaId", factura.getId());
+        payload.put("clienteId", factura.getCliente().getId());
+        payload.put("items", factura.getItems().size());
+        payload.put("subtotal", factura.getTotal());
+        return payload;
+    }
+}
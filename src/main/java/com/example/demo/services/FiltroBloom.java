@@ -0,0 +1,73 @@
+package com.example.demo.services;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtro de Bloom concurrente para cadenas. Responde "seguro que no está" o "quizá está" sin
+ * reservar memoria: el hash se calcula recorriendo los caracteres y las {@code k} posiciones se
+ * derivan con doble hashing a partir de dos valores de 64 bits.
+ */
+public final class FiltroBloom {
+
+    private final AtomicLongArray palabras;
+    private final long bits;
+    private final int funciones;
+
+    /**
+     * @param capacidad          Número de elementos esperado.
+     * @param falsosPositivos    Tasa de falsos positivos deseada con esa capacidad (por ejemplo 0.01).
+     */
+    public FiltroBloom(int capacidad, double falsosPositivos) {
+        int elementos = Math.max(1, capacidad);
+        long m = (long) Math.ceil(-elementos * Math.log(falsosPositivos) / (Math.log(2) * Math.log(2)));
+        this.bits = Math.max(64, ((m + 63) / 64) * 64);
+        this.funciones = Math.max(1, (int) Math.round((double) bits / elementos * Math.log(2)));
+        this.palabras = new AtomicLongArray((int) (bits / 64));
+    }
+
+    public void agregar(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, bits);
+            int indice = (int) (posicion >>> 6);
+            long mascara = 1L << posicion;
+            long actual;
+            do {
+                actual = palabras.get(indice);
+                if ((actual & mascara) != 0) {
+                    break;
+                }
+            } while (!palabras.compareAndSet(indice, actual, actual | mascara));
+        }
+    }
+
+    public boolean quizaContiene(String valor) {
+        long h1 = hash(valor);
+        long h2 = mezclar(h1) | 1;
+        for (int i = 0; i < funciones; i++) {
+            long posicion = Math.floorMod(h1 + i * h2, bits);
+            if ((palabras.get((int) (posicion >>> 6)) & (1L << posicion)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a de 64 bits sobre los caracteres, seguido de una mezcla para repartir mejor los bits bajos.
+    private static long hash(String valor) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < valor.length(); i++) {
+            h ^= valor.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        return mezclar(h);
+    }
+
+    // Finalizador de SplitMix64.
+    private static long mezclar(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.demo.services;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * SHA-256 en hexadecimal, para guardar secretos sin el valor original y para meter valores arbitrarios
+ * (filtros, paginación) en un ETag fuerte sin riesgo práctico de colisión.
+ */
+final class Huellas {
+
+    private Huellas() {
+    }
+
+    static String sha256(String valor) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(valor.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
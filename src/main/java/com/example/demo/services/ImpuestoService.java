@@ -0,0 +1,119 @@
+package com.example.demo.services;
+
+import com.example.demo.projections.LineaImpuestoView;
+import com.example.demo.projections.TasaImpuestoView;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.repositories.TasaImpuestoRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Motor de impuestos por región y categoría de producto. Mantiene la {@link TablaImpuestos}
+ * compilada en memoria y la reemplaza completa al recargar, de modo que los cálculos en curso
+ * nunca ven una tabla a medio construir.
+ */
+@Service
+public class ImpuestoService {
+
+    // Tamaño máximo de la lista IN al consultar líneas de muchas facturas.
+    private static final int TAMANO_LOTE = 1000;
+
+    private final TasaImpuestoRepository tasaImpuestoRepository;
+    private final FacturaRepository facturaRepository;
+    private final long regionPorDefecto;
+
+    private volatile TablaImpuestos tabla = TablaImpuestos.vacia();
+    private final AtomicLong generacion = new AtomicLong();
+
+    public ImpuestoService(TasaImpuestoRepository tasaImpuestoRepository, FacturaRepository facturaRepository,
+                           @Value("${facturacion.impuestos.region-por-defecto:0}") long regionPorDefecto) {
+        this.tasaImpuestoRepository = tasaImpuestoRepository;
+        this.facturaRepository = facturaRepository;
+        this.regionPorDefecto = regionPorDefecto;
+    }
+
+    /**
+     * Compila la tabla desde la base de datos. Se ejecuta al arrancar y cada vez que cambian las tasas.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(readOnly = true)
+    public void recargar() {
+        this.tabla = TablaImpuestos.compilar(tasaImpuestoRepository.findAllTasas());
+        generacion.incrementAndGet();
+    }
+
+    public TablaImpuestos getTabla() {
+        return tabla;
+    }
+
+    /**
+     * Región cuyas tasas se aplican a un cliente. Los clientes sin región usan las de
+     * {@code facturacion.impuestos.region-por-defecto}; con el valor por defecto (0) no pagan impuestos.
+     */
+    public long regionImpuestos(Long regionId) {
+        return regionId == null ? regionPorDefecto : regionId;
+    }
+
+    /**
+     * Número de veces que se ha recargado la tabla; forma parte de los ETag de todo lo que muestra impuestos.
+     */
+    public long getGeneracion() {
+        return generacion.get();
+    }
+
+    @Transactional(readOnly = true)
+    public List<TasaImpuestoView> findAllTasas() {
+        return tasaImpuestoRepository.findAllTasas();
+    }
+
+    /**
+     * Calcula el impuesto total de un conjunto de facturas en bloque.
+     *
+     * @param facturaIds Identificadores de las facturas.
+     * @return Impuesto por id de factura; las facturas sin líneas quedan con 0.
+     */
+    @Transactional(readOnly = true)
+    public Map<Long, Double> calcularImpuestos(List<Long> facturaIds) {
+        TablaImpuestos tablaActual = this.tabla;
+        Map<Long, Double> resultado = new HashMap<>(facturaIds.size() * 2);
+
+        for (int desde = 0; desde < facturaIds.size(); desde += TAMANO_LOTE) {
+            List<Long> lote = facturaIds.subList(desde, Math.min(desde + TAMANO_LOTE, facturaIds.size()));
+            Map<Long, Integer> posiciones = new HashMap<>(lote.size() * 2);
+            for (Long id : lote) {
+                posiciones.putIfAbsent(id, posiciones.size());
+            }
+
+            List<LineaImpuestoView> lineas = facturaRepository.findLineasImpuesto(posiciones.keySet());
+            int n = lineas.size();
+            int[] factura = new int[n];
+            long[] region = new long[n];
+            int[] categoria = new int[n];
+            int[] cantidad = new int[n];
+            double[] precio = new double[n];
+            for (int i = 0; i < n; i++) {
+                LineaImpuestoView linea = lineas.get(i);
+                factura[i] = posiciones.get(linea.getFacturaId());
+                region[i] = regionImpuestos(linea.getRegionId());
+                categoria[i] = tablaActual.indiceCategoria(linea.getCategoria());
+                cantidad[i] = linea.getCantidad();
+                precio[i] = linea.getPrecio();
+            }
+
+            double[] subtotales = new double[posiciones.size()];
+            double[] impuestos = new double[posiciones.size()];
+            tablaActual.acumular(n, factura, region, categoria, cantidad, precio, subtotales, impuestos);
+            posiciones.forEach((id, posicion) -> resultado.put(id, impuestos[posicion]));
+        }
+
+        return resultado;
+    }
+}
@@ -2,21 +2,33 @@ package com.example.demo.services;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 import javax.crypto.SecretKey;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Service
 public class JwtService {
 
-    private final SecretKey SECRET_KEY = Jwts.SIG.HS256.key().build();
+    // Clave fija de configuración: con una aleatoria por arranque, los tokens emitidos antes de reiniciar
+    // dejarían de validar y la lista persistida de revocados no coincidiría nunca con un token vivo.
+    private final SecretKey SECRET_KEY;
     private final long expiration = 3600000;
 
+    /**
+     * @param clave Clave HS256 en base64, de al menos 256 bits.
+     */
+    public JwtService(@Value("${facturacion.jwt.clave}") String clave) {
+        this.SECRET_KEY = Keys.hmacShaKeyFor(Decoders.BASE64.decode(clave));
+    }
+
 
     public String extractUsername(String token){
         return extractClaim(token,Claims::getSubject);
@@ -44,6 +56,7 @@ public class JwtService {
         return Jwts
                 .builder()
                 .subject(userDetails.getUsername())
+                .id(UUID.randomUUID().toString())
                 .claims(extraCleams)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
@@ -69,7 +82,7 @@ public class JwtService {
         return extractClaim(token, Claims::getSubject);
     }
 
-    private Claims extractAllClaims(String token) {
+    public Claims extractAllClaims(String token) {
         return Jwts
                 .parser()
                 .verifyWith(SECRET_KEY)
@@ -0,0 +1,247 @@
+package com.example.demo.services;
+
+import com.example.demo.config.ConexionesReactivas;
+import com.example.demo.dtos.ClienteDto;
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaResumenDto;
+import com.example.demo.dtos.ItemFacturaDto;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Lecturas de clientes y facturas sin bloquear hilos: las consultas van por R2DBC y los resultados se
+ * emiten fila a fila según los pide el consumidor.
+ *
+ * <p>Devuelve los mismos DTO que la API bloqueante. Los listados se piden a todos los shards a la vez
+ * y se mezclan ordenados por id; como una región en movimiento puede estar un instante en dos shards,
+ * los ids repetidos (consecutivos tras la mezcla) se descartan. Las búsquedas por id también consultan
+ * todos los shards, porque el directorio de regiones solo se puede leer con JDBC.</p>
+ */
+@Service
+public class LecturaReactivaService {
+
+    public static final int MAX_LIMITE = 100_000;
+
+    private static final String CLIENTES =
+            "select c.id, c.nombre, c.apellido, c.email, c.create_at, c.foto, r.id as region_id, r.nombre as region_nombre " +
+            "from clientes c left join regiones r on r.id = c.region_id ";
+    private static final String CLIENTES_DESDE = CLIENTES + "where c.id > :desde order by c.id limit :limite";
+    private static final String CLIENTE = CLIENTES + "where c.id = :id";
+
+    // Una fila por línea; la subconsulta limita facturas y no líneas.
+    private static final String LINEAS =
+            "select f.id, f.descripcion, f.observacion, f.create_at, f.cliente_id, c.region_id, " +
+            "i.cantidad, p.categoria, p.precio " +
+            "from (select * from facturas where %s order by id limit :limite) f " +
+            "join clientes c on c.id = f.cliente_id " +
+            "left join facturas_items i on i.factura_id = f.id " +
+            "left join productos p on p.id = i.producto_id " +
+            "order by f.id";
+    private static final String LINEAS_DESDE = LINEAS.formatted("id > :desde");
+    private static final String LINEAS_CLIENTE = LINEAS.formatted("cliente_id = :clienteId and id > :desde");
+
+    private static final String FACTURA =
+            "select f.id, f.descripcion, f.observacion, f.create_at, c.id as cliente_id, c.nombre, c.apellido, c.region_id " +
+            "from facturas f join clientes c on c.id = f.cliente_id where f.id = :id";
+    private static final String ITEMS =
+            "select i.id, i.cantidad, p.id as producto_id, p.nombre, p.categoria, p.precio " +
+            "from facturas_items i join productos p on p.id = i.producto_id where i.factura_id = :facturaId order by i.id";
+
+    private final ConexionesReactivas conexiones;
+    private final ImpuestoService impuestoService;
+    private final AlmacenArchivoFacturas almacenArchivo;
+
+    public LecturaReactivaService(ConexionesReactivas conexiones, ImpuestoService impuestoService,
+                                  AlmacenArchivoFacturas almacenArchivo) {
+        this.conexiones = conexiones;
+        this.impuestoService = impuestoService;
+        this.almacenArchivo = almacenArchivo;
+    }
+
+    /**
+     * Clientes con id mayor que {@code desde}, ordenados por id.
+     */
+    public Flux<ClienteDto> clientes(long desde, int limite) {
+        validarLimite(limite);
+        return mezclar(conexion -> conexion.sql(CLIENTES_DESDE)
+                        .bind("desde", desde)
+                        .bind("limite", limite)
+                        .map(fila -> cliente(fila))
+                        .all(),
+                ClienteDto::getId, limite);
+    }
+
+    public Mono<ClienteDto> cliente(Long id) {
+        return Flux.merge(conexiones.todas().stream()
+                        .map(conexion -> conexion.sql(CLIENTE).bind("id", id).map(fila -> cliente(fila)).one())
+                        .toList())
+                .next();
+    }
+
+    /**
+     * Resúmenes de facturas con id mayor que {@code desde}, ordenados por id y con impuestos.
+     */
+    public Flux<FacturaResumenDto> facturas(long desde, int limite) {
+        validarLimite(limite);
+        return mezclar(conexion -> resumenes(conexion.sql(LINEAS_DESDE)
+                        .bind("desde", desde)
+                        .bind("limite", limite)),
+                FacturaResumenDto::getId, limite);
+    }
+
+    /**
+     * Resúmenes de las facturas de un cliente, incluidas las archivadas, como en la API bloqueante. El
+     * archivo se lee fuera de los hilos de R2DBC y se mezcla detrás de los shards, así que si una
+     * factura aparece en los dos gana la de las tablas.
+     */
+    public Flux<FacturaResumenDto> facturasPorCliente(Long clienteId, long desde, int limite) {
+        validarLimite(limite);
+        List<Flux<FacturaResumenDto>> parciales = new ArrayList<>();
+        for (DatabaseClient conexion : conexiones.todas()) {
+            parciales.add(resumenes(conexion.sql(LINEAS_CLIENTE)
+                    .bind("clienteId", clienteId)
+                    .bind("desde", desde)
+                    .bind("limite", limite)));
+        }
+        parciales.add(Mono.fromCallable(() -> almacenArchivo.buscarPorCliente(clienteId))
+                .subscribeOn(Schedulers.boundedElastic())
+                .flatMapIterable(archivadas -> archivadas)
+                .filter(factura -> factura.getId() > desde)
+                .take(limite)
+                .map(factura -> resumen(conTasas(factura))));
+        return mezclar(parciales, FacturaResumenDto::getId, limite);
+    }
+
+    /**
+     * Detalle de una factura; si no está en ningún shard se busca en el archivo, que se lee con E/S
+     * bloqueante y por eso fuera de los hilos de R2DBC.
+     */
+    public Mono<FacturaDetalleDto> factura(Long id) {
+        return Flux.merge(conexiones.todas().stream()
+                        .map(conexion -> detalle(conexion, id))
+                        .toList())
+                .next()
+                .switchIfEmpty(Mono.fromCallable(() -> almacenArchivo.buscar(id))
+                        .subscribeOn(Schedulers.boundedElastic())
+                        .flatMap(Mono::justOrEmpty)
+                        .map(this::conTasas));
+    }
+
+    private <T> Flux<T> mezclar(Function<DatabaseClient, Flux<T>> consulta, Function<T, Long> id, int limite) {
+        return mezclar(conexiones.todas().stream().map(consulta).toList(), id, limite);
+    }
+
+    // Ante ids iguales mergeComparing emite primero el de la fuente anterior, y es el que se conserva.
+    private <T> Flux<T> mezclar(List<Flux<T>> parciales, Function<T, Long> id, int limite) {
+        Flux<T> mezcla = parciales.size() == 1
+                ? parciales.get(0)
+                : Flux.mergeComparing(Comparator.comparing(id), parciales.toArray(Flux[]::new));
+        return mezcla.distinctUntilChanged(id).take(limite);
+    }
+
+    // Agrupa las filas consecutivas de cada factura en su resumen.
+    private Flux<FacturaResumenDto> resumenes(DatabaseClient.GenericExecuteSpec consulta) {
+        return consulta.map(fila -> LineaFactura.leer(fila))
+                .all()
+                .bufferUntilChanged(LineaFactura::id)
+                .map(this::resumen);
+    }
+
+    private FacturaResumenDto resumen(List<LineaFactura> lineas) {
+        TablaImpuestos tabla = impuestoService.getTabla();
+        LineaFactura cabecera = lineas.get(0);
+        long region = impuestoService.regionImpuestos(cabecera.regionId());
+        double subtotal = 0.0;
+        double impuestos = 0.0;
+        for (LineaFactura linea : lineas) {
+            if (linea.cantidad() == null) {
+                continue;
+            }
+            subtotal += linea.cantidad() * linea.precio();
+            impuestos += tabla.impuesto(region, tabla.indiceCategoria(linea.categoria()),
+                    linea.cantidad(), linea.precio());
+        }
+        FacturaResumenDto resumen = new FacturaResumenDto(cabecera.id(), cabecera.descripcion(),
+                cabecera.observacion(), cabecera.createAt(), cabecera.clienteId(), subtotal);
+        resumen.setImpuestos(impuestos);
+        return resumen;
+    }
+
+    private static FacturaResumenDto resumen(FacturaDetalleDto factura) {
+        FacturaResumenDto resumen = new FacturaResumenDto(factura.getId(), factura.getDescripcion(),
+                factura.getObservacion(), factura.getCreateAt(), factura.getClienteId(), factura.getSubtotal());
+        resumen.setImpuestos(factura.getImpuestos());
+        return resumen;
+    }
+
+    private Mono<FacturaDetalleDto> detalle(DatabaseClient conexion, Long id) {
+        return conexion.sql(FACTURA)
+                .bind("id", id)
+                .map(fila -> new FacturaDetalleDto(fila.get("id", Long.class), fila.get("descripcion", String.class),
+                        fila.get("observacion", String.class), fecha(fila), fila.get("cliente_id", Long.class),
+                        fila.get("nombre", String.class), fila.get("apellido", String.class),
+                        fila.get("region_id", Long.class)))
+                .one()
+                .flatMap(factura -> conexion.sql(ITEMS)
+                        .bind("facturaId", id)
+                        .map(fila -> new ItemFacturaDto(fila.get("id", Long.class), fila.get("cantidad", Integer.class),
+                                fila.get("producto_id", Long.class), fila.get("nombre", String.class),
+                                fila.get("categoria", String.class), fila.get("precio", Double.class)))
+                        .all()
+                        .collectList()
+                        .map(items -> {
+                            factura.setItems(items);
+                            return conTasas(factura);
+                        }));
+    }
+
+    private FacturaDetalleDto conTasas(FacturaDetalleDto factura) {
+        TablaImpuestos tabla = impuestoService.getTabla();
+        long region = impuestoService.regionImpuestos(factura.getRegionId());
+        for (ItemFacturaDto item : factura.getItems()) {
+            item.setTasaImpuesto(tabla.tasa(region, tabla.indiceCategoria(item.getCategoria())));
+        }
+        return factura;
+    }
+
+    private static ClienteDto cliente(Readable fila) {
+        return new ClienteDto(fila.get("id", Long.class), fila.get("nombre", String.class),
+                fila.get("apellido", String.class), fila.get("email", String.class), fecha(fila),
+                fila.get("foto", String.class), fila.get("region_id", Long.class),
+                fila.get("region_nombre", String.class));
+    }
+
+    // La API bloqueante devuelve las columnas DATE como java.sql.Date; se conserva para que el JSON coincida.
+    private static Date fecha(Readable fila) {
+        LocalDate fecha = fila.get("create_at", LocalDate.class);
+        return fecha == null ? null : java.sql.Date.valueOf(fecha);
+    }
+
+    private static void validarLimite(int limite) {
+        if (limite < 1 || limite > MAX_LIMITE) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_LIMITE);
+        }
+    }
+
+    private record LineaFactura(Long id, String descripcion, String observacion, Date createAt, Long clienteId,
+                                Long regionId, Integer cantidad, String categoria, Double precio) {
+
+        static LineaFactura leer(Readable fila) {
+            return new LineaFactura(fila.get("id", Long.class), fila.get("descripcion", String.class),
+                    fila.get("observacion", String.class), fecha(fila), fila.get("cliente_id", Long.class),
+                    fila.get("region_id", Long.class), fila.get("cantidad", Integer.class),
+                    fila.get("categoria", String.class), fila.get("precio", Double.class));
+        }
+    }
+}
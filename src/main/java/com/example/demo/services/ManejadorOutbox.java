@@ -0,0 +1,14 @@
+package com.example.demo.services;
+
+import com.example.demo.models.OutboxEvento;
+
+/**
+ * Consumidor en proceso de eventos del outbox (contabilidad, notificaciones, acumulados...).
+ * Cualquier bean que implemente esta interfaz recibe los eventos cuyo tipo acepte.
+ */
+public interface ManejadorOutbox {
+
+    boolean acepta(String tipoEvento);
+
+    void manejar(OutboxEvento evento) throws Exception;
+}
@@ -0,0 +1,37 @@
+package com.example.demo.services;
+
+import com.example.demo.models.OutboxEvento;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Sink por defecto: reparte cada evento entre los {@link ManejadorOutbox} registrados en el contexto.
+ * Un evento que ningún manejador acepta no se da por procesado: falla como cualquier otra entrega y,
+ * agotados los reintentos, queda en {@code FALLIDO} en lugar de perderse en silencio.
+ */
+@Component
+@ConditionalOnProperty(name = "facturacion.outbox.sink", havingValue = "manejadores", matchIfMissing = true)
+public class ManejadoresOutboxSink implements OutboxSink {
+
+    private final List<ManejadorOutbox> manejadores;
+
+    public ManejadoresOutboxSink(List<ManejadorOutbox> manejadores) {
+        this.manejadores = manejadores;
+    }
+
+    @Override
+    public void publicar(OutboxEvento evento) throws Exception {
+        boolean manejado = false;
+        for (ManejadorOutbox manejador : manejadores) {
+            if (manejador.acepta(evento.getTipoEvento())) {
+                manejador.manejar(evento);
+                manejado = true;
+            }
+        }
+        if (!manejado) {
+            throw new IllegalStateException("Ningún manejador acepta los eventos " + evento.getTipoEvento());
+        }
+    }
+}
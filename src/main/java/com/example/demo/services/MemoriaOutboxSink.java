@@ -0,0 +1,43 @@
+package com.example.demo.services;
+
+import com.example.demo.models.OutboxEvento;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Sink en memoria para pruebas y desarrollo local: guarda los eventos publicados para inspeccionarlos.
+ */
+@Component
+@ConditionalOnProperty(name = "facturacion.outbox.sink", havingValue = "memoria")
+public class MemoriaOutboxSink implements OutboxSink {
+
+    private final ConcurrentLinkedQueue<OutboxEvento> publicados = new ConcurrentLinkedQueue<>();
+    private volatile boolean caido;
+
+    @Override
+    public void publicar(OutboxEvento evento) {
+        if (caido) {
+            throw new IllegalStateException("Sink en memoria caído");
+        }
+        publicados.add(evento);
+    }
+
+    /**
+     * Simula una caída del destino: mientras dure, todas las entregas fallan.
+     */
+    public void setCaido(boolean caido) {
+        this.caido = caido;
+    }
+
+    public List<OutboxEvento> getPublicados() {
+        return new ArrayList<>(publicados);
+    }
+
+    public void limpiar() {
+        publicados.clear();
+    }
+}
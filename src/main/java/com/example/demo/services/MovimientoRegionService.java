@@ -0,0 +1,159 @@
+package com.example.demo.services;
+
+import com.example.demo.config.ShardingProperties;
+import com.example.demo.responses.MovimientoRegionResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Mueve una región, con sus clientes, facturas y líneas, de un shard a otro conservando los ids.
+ *
+ * <p>Mientras dura la copia la región no admite escrituras ({@link ShardService} las rechaza) pero sí
+ * lecturas, que siguen yendo al origen. La copia se confirma en el destino en una sola transacción;
+ * después se cambia el directorio y, ya sin tráfico hacia el origen, se borran allí las filas. Si algo
+ * falla antes del cambio de directorio el origen queda intacto y el movimiento puede repetirse.</p>
+ *
+ * <p>El bloqueo de escrituras es local a esta instancia: con varias instancias de la aplicación el
+ * movimiento debe hacerse con el resto detenidas o sin tráfico de escritura para la región.</p>
+ */
+@Service
+public class MovimientoRegionService {
+
+    private static final Logger log = LoggerFactory.getLogger(MovimientoRegionService.class);
+
+    private static final int TAMANO_LOTE = 1000;
+
+    private static final String CLIENTES =
+            "select c.id, c.version, c.nombre, c.apellido, c.email, c.create_at, c.foto, c.region_id " +
+            "from clientes c where c.region_id = ? and c.id > ? order by c.id limit ?";
+    private static final String FACTURAS =
+            "select f.id, f.version, f.descripcion, f.observacion, f.create_at, f.cliente_id " +
+            "from facturas f join clientes c on c.id = f.cliente_id where c.region_id = ? and f.id > ? order by f.id limit ?";
+    private static final String ITEMS =
+            "select i.id, i.cantidad, i.producto_id, i.factura_id from facturas_items i " +
+            "join facturas f on f.id = i.factura_id join clientes c on c.id = f.cliente_id " +
+            "where c.region_id = ? and i.id > ? order by i.id limit ?";
+
+    private final ShardService shardService;
+    private final ShardingProperties properties;
+
+    public MovimientoRegionService(ShardService shardService, ShardingProperties properties) {
+        this.shardService = shardService;
+        this.properties = properties;
+    }
+
+    /**
+     * Lleva cada región configurada en {@code facturacion.sharding.regiones} a su shard si aún no
+     * está allí.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reubicar() {
+        if (!shardService.isHabilitado() || !properties.isReubicarAlIniciar()) {
+            return;
+        }
+        for (Map.Entry<Long, String> region : properties.getRegiones().entrySet()) {
+            if (!region.getValue().equals(shardService.shardDeRegion(region.getKey()))) {
+                mover(region.getKey(), region.getValue());
+            }
+        }
+    }
+
+    public MovimientoRegionResponse mover(Long regionId, String destino) {
+        if (!shardService.isHabilitado()) {
+            throw new IllegalArgumentException("El sharding no está habilitado");
+        }
+        if (!shardService.getShards().contains(destino)) {
+            throw new IllegalArgumentException("Shard desconocido: " + destino);
+        }
+
+        long inicio = System.currentTimeMillis();
+        ReentrantReadWriteLock.WriteLock escritura = shardService.cerrojo(regionId).writeLock();
+        // Espera a que terminen las escrituras en curso; las nuevas se rechazan mientras tanto.
+        escritura.lock();
+        String origen;
+        long[] copiadas;
+        try {
+            origen = shardService.shardDeRegion(regionId);
+            if (origen.equals(destino)) {
+                return new MovimientoRegionResponse(regionId, origen, destino, 0L, 0L, 0L, 0L);
+            }
+            JdbcTemplate lectura = new JdbcTemplate(shardService.dataSource(origen));
+            DataSource dataSourceDestino = shardService.dataSource(destino);
+            JdbcTemplate escrituraDestino = new JdbcTemplate(dataSourceDestino);
+            copiadas = new TransactionTemplate(new DataSourceTransactionManager(dataSourceDestino)).execute(status -> {
+                // Restos de un intento anterior que se confirmó en el destino sin llegar a cambiar el directorio.
+                borrarRegion(escrituraDestino, regionId);
+                return new long[]{
+                        copiar(lectura, escrituraDestino, regionId, CLIENTES,
+                                "insert into clientes (id, version, nombre, apellido, email, create_at, foto, region_id) values (?, ?, ?, ?, ?, ?, ?, ?)"),
+                        copiar(lectura, escrituraDestino, regionId, FACTURAS,
+                                "insert into facturas (id, version, descripcion, observacion, create_at, cliente_id) values (?, ?, ?, ?, ?, ?)"),
+                        copiar(lectura, escrituraDestino, regionId, ITEMS,
+                                "insert into facturas_items (id, cantidad, producto_id, factura_id) values (?, ?, ?, ?)")
+                };
+            });
+            shardService.alinearIdentidades(destino);
+            shardService.asignar(regionId, destino);
+        } finally {
+            escritura.unlock();
+        }
+
+        DataSource dataSourceOrigen = shardService.dataSource(origen);
+        JdbcTemplate jdbcOrigen = new JdbcTemplate(dataSourceOrigen);
+        new TransactionTemplate(new DataSourceTransactionManager(dataSourceOrigen))
+                .executeWithoutResult(status -> borrarRegion(jdbcOrigen, regionId));
+
+        MovimientoRegionResponse respuesta = new MovimientoRegionResponse(regionId, origen, destino,
+                copiadas[0], copiadas[1], copiadas[2], System.currentTimeMillis() - inicio);
+        log.info("Región {} movida de {} a {}: {} clientes, {} facturas, {} líneas en {} ms", regionId, origen, destino,
+                respuesta.getClientes(), respuesta.getFacturas(), respuesta.getItems(), respuesta.getMilisegundos());
+        return respuesta;
+    }
+
+    private static void borrarRegion(JdbcTemplate jdbc, Long regionId) {
+        jdbc.update("delete from facturas_items where factura_id in (select f.id from facturas f " +
+                "join clientes c on c.id = f.cliente_id where c.region_id = ?)", regionId);
+        jdbc.update("delete from facturas where cliente_id in (select c.id from clientes c where c.region_id = ?)", regionId);
+        jdbc.update("delete from clientes where region_id = ?", regionId);
+    }
+
+    /**
+     * Copia por lotes recorriendo el id; la primera columna de la consulta debe ser el id.
+     */
+    private static long copiar(JdbcTemplate origen, JdbcTemplate destino, Long regionId, String consulta, String insercion) {
+        long copiadas = 0;
+        long ultimoId = 0;
+        while (true) {
+            List<Object[]> lote = new ArrayList<>(TAMANO_LOTE);
+            origen.query(consulta, rs -> {
+                int columnas = rs.getMetaData().getColumnCount();
+                Object[] fila = new Object[columnas];
+                for (int i = 0; i < columnas; i++) {
+                    fila[i] = rs.getObject(i + 1);
+                }
+                lote.add(fila);
+            }, regionId, ultimoId, TAMANO_LOTE);
+            if (lote.isEmpty()) {
+                return copiadas;
+            }
+            destino.batchUpdate(insercion, lote);
+            copiadas += lote.size();
+            ultimoId = ((Number) lote.get(lote.size() - 1)[0]).longValue();
+            if (lote.size() < TAMANO_LOTE) {
+                return copiadas;
+            }
+        }
+    }
+}
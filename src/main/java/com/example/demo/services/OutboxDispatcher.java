@@ -0,0 +1,167 @@
+package com.example.demo.services;
+
+import com.example.demo.config.ShardContexto;
+import com.example.demo.models.EstadoOutbox;
+import com.example.demo.models.OutboxEvento;
+import com.example.demo.repositories.OutboxEventoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Despachador en segundo plano del outbox. En cada sondeo reclama lotes de eventos pendientes con
+ * {@code SKIP LOCKED}, los entrega al {@link OutboxSink} y los marca como procesados en la misma
+ * transacción que mantiene el bloqueo. La entrega es "al menos una vez": si la transacción se
+ * revierte tras publicar, el evento volverá a entregarse.
+ *
+ * <p>Un evento que falla no se reclama de nuevo hasta que pasa su espera, que se duplica en cada
+ * intento ({@code reintento-base-ms}, el doble, ... hasta {@code reintento-max-ms}). Así una caída
+ * breve del destino no agota los {@code max-intentos} en unos milisegundos, y los eventos que fallan
+ * no bloquean a los más nuevos.</p>
+ *
+ * <p>Con sharding cada shard tiene su propio outbox, porque los eventos se insertan en la transacción
+ * de la factura; el despachador los recorre uno tras otro.</p>
+ */
+@Component
+public class OutboxDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(OutboxDispatcher.class);
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final OutboxSink outboxSink;
+    private final OutboxMetricas outboxMetricas;
+    private final ShardService shardService;
+    private final TransactionTemplate transactionTemplate;
+    private final int tamanoLote;
+    private final int maxIntentos;
+    private final int retencionDias;
+    private final long reintentoBaseMs;
+    private final long reintentoMaxMs;
+
+    public OutboxDispatcher(OutboxEventoRepository outboxEventoRepository,
+                            OutboxSink outboxSink,
+                            OutboxMetricas outboxMetricas,
+                            ShardService shardService,
+                            PlatformTransactionManager transactionManager,
+                            @Value("${facturacion.outbox.lote:100}") int tamanoLote,
+                            @Value("${facturacion.outbox.max-intentos:5}") int maxIntentos,
+                            @Value("${facturacion.outbox.retencion-dias:7}") int retencionDias,
+                            @Value("${facturacion.outbox.reintento-base-ms:1000}") long reintentoBaseMs,
+                            @Value("${facturacion.outbox.reintento-max-ms:300000}") long reintentoMaxMs) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.outboxSink = outboxSink;
+        this.outboxMetricas = outboxMetricas;
+        this.shardService = shardService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.tamanoLote = tamanoLote;
+        this.maxIntentos = maxIntentos;
+        this.retencionDias = retencionDias;
+        this.reintentoBaseMs = reintentoBaseMs;
+        this.reintentoMaxMs = reintentoMaxMs;
+    }
+
+    /**
+     * Vacía el outbox de cada shard lote a lote hasta que un lote llega incompleto o no consigue
+     * publicar ningún evento; en ese caso el destino probablemente está caído y se espera al próximo sondeo.
+     */
+    @Scheduled(fixedDelayString = "${facturacion.outbox.intervalo-ms:1000}")
+    public void despachar() {
+        for (String shard : shardService.getShards()) {
+            ShardContexto.ejecutar(shard, () -> {
+                Lote lote;
+                do {
+                    lote = despacharLote();
+                } while (lote.reclamados() == tamanoLote && lote.publicados() > 0);
+                return null;
+            });
+        }
+    }
+
+    /**
+     * Reclama y entrega un lote.
+     */
+    public Lote despacharLote() {
+        Lote lote = transactionTemplate.execute(status -> {
+            List<OutboxEvento> eventos = outboxEventoRepository.findListos(
+                    EstadoOutbox.PENDIENTE, new Date(), Limit.of(tamanoLote));
+            if (eventos.isEmpty()) {
+                return new Lote(0, 0);
+            }
+
+            long inicio = System.nanoTime();
+            long lagTotal = 0;
+            int publicados = 0;
+            for (OutboxEvento evento : eventos) {
+                if (entregar(evento)) {
+                    publicados++;
+                    lagTotal += evento.getProcessedAt().getTime() - evento.getCreateAt().getTime();
+                }
+            }
+            outboxMetricas.registrarLote(publicados, lagTotal, System.nanoTime() - inicio);
+            return new Lote(eventos.size(), publicados);
+        });
+        return lote == null ? new Lote(0, 0) : lote;
+    }
+
+    // Devuelve true si el evento se publicó.
+    private boolean entregar(OutboxEvento evento) {
+        try {
+            outboxSink.publicar(evento);
+            evento.setEstado(EstadoOutbox.PROCESADO);
+            evento.setProcessedAt(new Date());
+            evento.setUltimoError(null);
+            outboxMetricas.registrarPublicado();
+            return true;
+        } catch (Exception e) {
+            evento.setIntentos(evento.getIntentos() + 1);
+            String mensaje = String.valueOf(e.getMessage());
+            evento.setUltimoError(mensaje.length() > 500 ? mensaje.substring(0, 500) : mensaje);
+            if (evento.getIntentos() >= maxIntentos) {
+                evento.setEstado(EstadoOutbox.FALLIDO);
+                outboxMetricas.registrarFallido();
+                log.error("Evento de outbox {} descartado tras {} intentos", evento.getId(), evento.getIntentos(), e);
+            } else {
+                evento.setSiguienteIntentoAt(new Date(System.currentTimeMillis() + espera(evento.getIntentos())));
+                outboxMetricas.registrarReintento();
+                log.warn("Fallo al publicar el evento de outbox {}: {}", evento.getId(), mensaje);
+            }
+            return false;
+        }
+    }
+
+    private long espera(int intentos) {
+        // Con más de 30 intentos el desplazamiento desbordaría; a esas alturas ya se está en el máximo.
+        long espera = reintentoBaseMs << Math.min(intentos - 1, 30);
+        return espera <= 0 ? reintentoMaxMs : Math.min(espera, reintentoMaxMs);
+    }
+
+    /**
+     * Elimina los eventos ya procesados que superan el período de retención.
+     */
+    @Scheduled(cron = "${facturacion.outbox.purga-cron:0 0 * * * *}")
+    public void purgar() {
+        Date limite = new Date(System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retencionDias));
+        for (String shard : shardService.getShards()) {
+            Integer eliminados = ShardContexto.ejecutar(shard, () -> transactionTemplate.execute(status ->
+                    outboxEventoRepository.deleteProcessedBefore(EstadoOutbox.PROCESADO, limite)));
+            if (eliminados != null && eliminados > 0) {
+                log.info("Purgados {} eventos de outbox procesados en {}", eliminados, shard);
+            }
+        }
+    }
+
+    /**
+     * Resultado de {@link #despacharLote()}: eventos reclamados y cuántos de ellos se publicaron.
+     */
+    public record Lote(int reclamados, int publicados) {
+    }
+}
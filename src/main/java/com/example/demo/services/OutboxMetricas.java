@@ -0,0 +1,65 @@
+package com.example.demo.services;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Contadores del despachador del outbox. El throughput se calcula sobre el tiempo que el
+ * despachador ha pasado procesando lotes, no sobre el tiempo ocioso entre sondeos.
+ */
+@Component
+public class OutboxMetricas {
+
+    private final AtomicLong publicados = new AtomicLong();
+    private final AtomicLong fallidos = new AtomicLong();
+    private final AtomicLong reintentos = new AtomicLong();
+    private final AtomicLong lotes = new AtomicLong();
+    private final AtomicLong nanosProcesando = new AtomicLong();
+    private volatile long lagUltimoLoteMs;
+
+    public void registrarLote(int eventos, long lagTotalMs, long nanos) {
+        lotes.incrementAndGet();
+        nanosProcesando.addAndGet(nanos);
+        if (eventos > 0) {
+            lagUltimoLoteMs = lagTotalMs / eventos;
+        }
+    }
+
+    public void registrarPublicado() {
+        publicados.incrementAndGet();
+    }
+
+    public void registrarReintento() {
+        reintentos.incrementAndGet();
+    }
+
+    public void registrarFallido() {
+        fallidos.incrementAndGet();
+    }
+
+    public long getPublicados() {
+        return publicados.get();
+    }
+
+    public long getFallidos() {
+        return fallidos.get();
+    }
+
+    public long getReintentos() {
+        return reintentos.get();
+    }
+
+    public long getLotes() {
+        return lotes.get();
+    }
+
+    public long getLagUltimoLoteMs() {
+        return lagUltimoLoteMs;
+    }
+
+    public double getEventosPorSegundo() {
+        long nanos = nanosProcesando.get();
+        return nanos == 0 ? 0.0 : publicados.get() * 1_000_000_000.0 / nanos;
+    }
+}
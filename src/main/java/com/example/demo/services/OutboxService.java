@@ -0,0 +1,79 @@
+package com.example.demo.services;
+
+import com.example.demo.models.EstadoOutbox;
+import com.example.demo.models.OutboxEvento;
+import com.example.demo.repositories.OutboxEventoRepository;
+import com.example.demo.responses.OutboxMetricasResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Date;
+
+@Service
+public class OutboxService {
+
+    private final OutboxEventoRepository outboxEventoRepository;
+    private final OutboxMetricas outboxMetricas;
+    private final ObjectMapper objectMapper;
+    private final ShardService shardService;
+
+    public OutboxService(OutboxEventoRepository outboxEventoRepository, OutboxMetricas outboxMetricas,
+                         ObjectMapper objectMapper, ShardService shardService) {
+        this.outboxEventoRepository = outboxEventoRepository;
+        this.outboxMetricas = outboxMetricas;
+        this.objectMapper = objectMapper;
+        this.shardService = shardService;
+    }
+
+    /**
+     * Registra un evento en el outbox. Exige una transacción activa para que el evento se confirme
+     * o se descarte junto con el cambio que lo produce.
+     *
+     * @param tipoAgregado Tipo de la entidad afectada (por ejemplo "Factura").
+     * @param agregadoId   Id de la entidad afectada.
+     * @param tipoEvento   Tipo del evento (por ejemplo "FACTURA_CREADA").
+     * @param payload      Contenido del evento; se serializa como JSON.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void registrar(String tipoAgregado, Long agregadoId, String tipoEvento, Object payload) {
+        OutboxEvento evento = new OutboxEvento();
+        evento.setTipoAgregado(tipoAgregado);
+        evento.setAgregadoId(agregadoId);
+        evento.setTipoEvento(tipoEvento);
+        try {
+            evento.setPayload(objectMapper.writeValueAsString(payload));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("No se pudo serializar el evento " + tipoEvento, e);
+        }
+        outboxEventoRepository.save(evento);
+    }
+
+    /**
+     * Métricas del despachador; los pendientes se suman entre todos los shards.
+     */
+    public OutboxMetricasResponse metricas() {
+        long pendientes = 0;
+        long masAntiguo = Long.MAX_VALUE;
+        for (Object[] shard : shardService.consultarTodos(() -> new Object[]{
+                outboxEventoRepository.countByEstado(EstadoOutbox.PENDIENTE),
+                outboxEventoRepository.findOldestCreateAt(EstadoOutbox.PENDIENTE)})) {
+            pendientes += (Long) shard[0];
+            if (shard[1] != null) {
+                masAntiguo = Math.min(masAntiguo, ((Date) shard[1]).getTime());
+            }
+        }
+        long lagPendiente = masAntiguo == Long.MAX_VALUE ? 0L : System.currentTimeMillis() - masAntiguo;
+        return new OutboxMetricasResponse(
+                pendientes,
+                outboxMetricas.getPublicados(),
+                outboxMetricas.getFallidos(),
+                outboxMetricas.getReintentos(),
+                outboxMetricas.getLotes(),
+                lagPendiente,
+                outboxMetricas.getLagUltimoLoteMs(),
+                outboxMetricas.getEventosPorSegundo());
+    }
+}
@@ -0,0 +1,12 @@
+package com.example.demo.services;
+
+import com.example.demo.models.OutboxEvento;
+
+/**
+ * Destino al que el despachador entrega los eventos del outbox. Si lanza una excepción el evento
+ * se reintenta en un lote posterior, por lo que las implementaciones deben tolerar duplicados.
+ */
+public interface OutboxSink {
+
+    void publicar(OutboxEvento evento) throws Exception;
+}
@@ -0,0 +1,44 @@
+package com.example.demo.services;
+
+import com.example.demo.projections.ProductoView;
+import com.example.demo.repositories.ProductoRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Service
+@Transactional(readOnly = true)
+public class ProductoService {
+
+    private final ProductoRepository productoRepository;
+
+    public ProductoService(ProductoRepository productoRepository) {
+        this.productoRepository = productoRepository;
+    }
+
+    public List<ProductoView> findAll(String nombre) {
+        if (nombre == null || nombre.isBlank()) {
+            return productoRepository.findAllByOrderByNombreAsc();
+        }
+        return productoRepository.findByNombreContainingIgnoreCaseOrderByNombreAsc(nombre);
+    }
+
+    public Optional<ProductoView> findById(Long id) {
+        return productoRepository.findProjectedById(id);
+    }
+
+    /**
+     * El filtro entra como SHA-256: puede contener cualquier carácter y un hash de 32 bits podría
+     * hacer coincidir dos filtros distintos.
+     */
+    public String etagColeccion(String nombre) {
+        String filtro = nombre == null || nombre.isBlank() ? "" : Huellas.sha256(nombre);
+        return "productos-" + productoRepository.findColeccionVersion().huella() + "-" + filtro;
+    }
+
+    public Optional<String> etag(Long id) {
+        return productoRepository.findVersionById(id).map(version -> "producto-" + id + "-" + version);
+    }
+}
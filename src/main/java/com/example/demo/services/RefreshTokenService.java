@@ -0,0 +1,145 @@
+package com.example.demo.services;
+
+import com.example.demo.models.RefreshToken;
+import com.example.demo.models.TipoEventoAuditoria;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.RefreshTokenRepository;
+import com.example.demo.responses.LoginResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Emite y rota refresh tokens para renovar el access token sin volver a enviar la contraseña.
+ *
+ * <p>El token es un valor aleatorio opaco de 256 bits; en base de datos solo se guarda su SHA-256.
+ * Con esa entropía no hace falta un hash lento como BCrypt, y la renovación queda en una búsqueda
+ * por índice único. Cada uso rota el token: el anterior queda marcado y, si alguien lo vuelve a
+ * presentar, se asume que fue robado y se revoca toda la familia nacida del mismo login.</p>
+ */
+@Service
+public class RefreshTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RefreshTokenService.class);
+
+    private static final int BYTES_TOKEN = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final JwtService jwtService;
+    private final AuditoriaService auditoriaService;
+    private final SecureRandom random = new SecureRandom();
+    private final long duracion;
+
+    public RefreshTokenService(RefreshTokenRepository refreshTokenRepository,
+                               JwtService jwtService,
+                               AuditoriaService auditoriaService,
+                               @Value("${facturacion.refresh.dias:30}") int dias) {
+        this.refreshTokenRepository = refreshTokenRepository;
+        this.jwtService = jwtService;
+        this.auditoriaService = auditoriaService;
+        this.duracion = TimeUnit.DAYS.toMillis(dias);
+    }
+
+    /**
+     * Inicia una familia nueva tras un login con contraseña.
+     */
+    @Transactional
+    public LoginResponse emitir(Usuario usuario) {
+        return crearSesion(usuario, UUID.randomUUID().toString());
+    }
+
+    /**
+     * Canjea un refresh token por un access token nuevo y un refresh token nuevo de la misma familia.
+     * La transacción no se revierte con {@link BadCredentialsException} para que la revocación de la
+     * familia por reuso quede confirmada aunque la petición falle. Los rechazos se auditan: el reuso como
+     * {@link TipoEventoAuditoria#REFRESH_REUTILIZADO} y el resto como {@link TipoEventoAuditoria#REFRESH_FALLIDO}.
+     *
+     * @throws BadCredentialsException Si el token no existe, expiró, fue revocado o ya se había usado.
+     */
+    @Transactional(noRollbackFor = BadCredentialsException.class)
+    public LoginResponse rotar(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            throw rechazo(TipoEventoAuditoria.REFRESH_FALLIDO, null, "Refresh token requerido");
+        }
+        RefreshToken actual = refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .orElseThrow(() -> rechazo(TipoEventoAuditoria.REFRESH_FALLIDO, null, "Refresh token inválido"));
+
+        if (actual.getRevocado()) {
+            throw rechazo(TipoEventoAuditoria.REFRESH_FALLIDO, actual, "Refresh token revocado");
+        }
+        // Antes de marcarlo: un token expirado no debe quedar usado, ya que la transacción no se revierte
+        if (actual.getExpiraAt().before(new Date())) {
+            throw rechazo(TipoEventoAuditoria.REFRESH_FALLIDO, actual, "Refresh token expirado");
+        }
+        if (actual.getUsado() || refreshTokenRepository.marcarUsado(actual.getId()) == 0) {
+            int revocados = refreshTokenRepository.revocarFamilia(actual.getFamilia());
+            log.warn("Reuso del refresh token {} del usuario {}: revocados {} tokens de la familia {}",
+                    actual.getId(), actual.getUsuario().getId(), revocados, actual.getFamilia());
+            throw rechazo(TipoEventoAuditoria.REFRESH_REUTILIZADO, actual, "Refresh token reutilizado");
+        }
+        if (!actual.getUsuario().isEnabled()) {
+            refreshTokenRepository.revocarFamilia(actual.getFamilia());
+            throw rechazo(TipoEventoAuditoria.REFRESH_FALLIDO, actual, "Usuario deshabilitado");
+        }
+
+        return crearSesion(actual.getUsuario(), actual.getFamilia());
+    }
+
+    /**
+     * Revoca la familia del token (logout). Un token desconocido se ignora.
+     */
+    @Transactional
+    public void revocar(String refreshToken) {
+        if (refreshToken == null || refreshToken.isBlank()) {
+            return;
+        }
+        refreshTokenRepository.findByTokenHash(hash(refreshToken))
+                .ifPresent(token -> refreshTokenRepository.revocarFamilia(token.getFamilia()));
+    }
+
+    /**
+     * Borra los tokens expirados; pasada su expiración ya no sirven ni para detectar reusos.
+     */
+    @Scheduled(cron = "${facturacion.refresh.purga-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgar() {
+        int borrados = refreshTokenRepository.deleteExpiredBefore(new Date());
+        if (borrados > 0) {
+            log.info("Purgados {} refresh tokens expirados", borrados);
+        }
+    }
+
+    private BadCredentialsException rechazo(TipoEventoAuditoria tipo, RefreshToken token, String motivo) {
+        auditoriaService.registrar(tipo, token == null ? null : token.getUsuario().getEmail(), motivo);
+        return new BadCredentialsException(motivo);
+    }
+
+    private LoginResponse crearSesion(Usuario usuario, String familia) {
+        byte[] bytes = new byte[BYTES_TOKEN];
+        random.nextBytes(bytes);
+        String valor = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        RefreshToken nuevo = new RefreshToken();
+        nuevo.setTokenHash(hash(valor));
+        nuevo.setUsuario(usuario);
+        nuevo.setFamilia(familia);
+        nuevo.setExpiraAt(new Date(System.currentTimeMillis() + duracion));
+        refreshTokenRepository.save(nuevo);
+
+        return new LoginResponse(jwtService.generateToken(usuario), jwtService.getExpirationTime(), valor, duracion);
+    }
+
+    private static String hash(String valor) {
+        return Huellas.sha256(valor);
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.demo.services;
+
+import com.example.demo.models.OutboxEvento;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.Set;
+
+/**
+ * Manejador incluido de serie: deja en el log cada evento de factura. Garantiza que el sink por defecto
+ * tenga al menos un consumidor, así los eventos se dan por procesados en lugar de acabar en
+ * {@code FALLIDO} mientras no se registre otro manejador (contabilidad, notificaciones...).
+ */
+@Component
+public class RegistroManejadorOutbox implements ManejadorOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(RegistroManejadorOutbox.class);
+
+    private static final Set<String> TIPOS = Set.of(FacturaService.FACTURA_CREADA,
+            FacturaService.FACTURA_ACTUALIZADA, FacturaService.FACTURA_ELIMINADA);
+
+    @Override
+    public boolean acepta(String tipoEvento) {
+        return TIPOS.contains(tipoEvento);
+    }
+
+    @Override
+    public void manejar(OutboxEvento evento) {
+        log.info("{} {} {}: {}", evento.getTipoEvento(), evento.getTipoAgregado(), evento.getAgregadoId(),
+                evento.getPayload());
+    }
+}
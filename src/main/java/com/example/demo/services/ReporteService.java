@@ -0,0 +1,100 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.ClienteVentasDto;
+import com.example.demo.dtos.VentasRegionDto;
+import com.example.demo.projections.ConteoRegionView;
+import com.example.demo.projections.RegionView;
+import com.example.demo.projections.VentaCategoriaView;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.repositories.RegionRepository;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Informes sobre todas las facturas. Cada informe se calcula en todos los shards en paralelo
+ * ({@link ShardService#consultarTodos}) y los resultados parciales se combinan aquí; sin sharding hay
+ * un solo resultado parcial.
+ */
+@Service
+public class ReporteService {
+
+    private static final int MAX_LIMITE = 1000;
+
+    private final ShardService shardService;
+    private final FacturaRepository facturaRepository;
+    private final RegionRepository regionRepository;
+    private final ImpuestoService impuestoService;
+
+    public ReporteService(ShardService shardService, FacturaRepository facturaRepository,
+                          RegionRepository regionRepository, ImpuestoService impuestoService) {
+        this.shardService = shardService;
+        this.facturaRepository = facturaRepository;
+        this.regionRepository = regionRepository;
+        this.impuestoService = impuestoService;
+    }
+
+    /**
+     * Facturación por región, con impuestos, ordenada de mayor a menor total.
+     */
+    public List<VentasRegionDto> ventasPorRegion() {
+        List<VentasShard> parciales = shardService.consultarTodos(() -> new VentasShard(
+                facturaRepository.countByRegion(), facturaRepository.findVentasPorRegionYCategoria()));
+
+        Map<Long, String> nombres = new HashMap<>();
+        for (RegionView region : regionRepository.findAllByOrderByNombreAsc()) {
+            nombres.put(region.getId(), region.getNombre());
+        }
+
+        TablaImpuestos tabla = impuestoService.getTabla();
+        Map<Long, VentasRegionDto> regiones = new HashMap<>();
+        for (int i = 0; i < parciales.size(); i++) {
+            String shard = shardService.getShards().get(i);
+            for (ConteoRegionView conteo : parciales.get(i).conteos()) {
+                VentasRegionDto region = region(regiones, nombres, conteo.getRegionId(), shard);
+                region.setFacturas(region.getFacturas() + conteo.getTotal());
+            }
+            for (VentaCategoriaView venta : parciales.get(i).ventas()) {
+                VentasRegionDto region = region(regiones, nombres, venta.getRegionId(), shard);
+                long regionImpuestos = impuestoService.regionImpuestos(venta.getRegionId());
+                region.setSubtotal(region.getSubtotal() + venta.getSubtotal());
+                region.setImpuestos(region.getImpuestos()
+                        + venta.getSubtotal() * tabla.tasa(regionImpuestos, tabla.indiceCategoria(venta.getCategoria())));
+            }
+        }
+
+        return regiones.values().stream()
+                .sorted(Comparator.comparing(VentasRegionDto::getTotal).reversed()
+                        .thenComparing(VentasRegionDto::getRegionId, Comparator.nullsLast(Comparator.naturalOrder())))
+                .toList();
+    }
+
+    /**
+     * Clientes con mayor facturación (sin impuestos). Cada cliente vive en un solo shard, así que basta
+     * con pedir los {@code limite} primeros a cada shard y quedarse con los {@code limite} mejores.
+     */
+    public List<ClienteVentasDto> topClientes(int limite) {
+        if (limite < 1 || limite > MAX_LIMITE) {
+            throw new IllegalArgumentException("El límite debe estar entre 1 y " + MAX_LIMITE);
+        }
+        return shardService.consultarTodos(() -> facturaRepository.findTopClientes(Limit.of(limite))).stream()
+                .flatMap(List::stream)
+                .sorted(Comparator.comparing(ClienteVentasDto::getSubtotal).reversed()
+                        .thenComparing(ClienteVentasDto::getId))
+                .limit(limite)
+                .toList();
+    }
+
+    private static VentasRegionDto region(Map<Long, VentasRegionDto> regiones, Map<Long, String> nombres,
+                                          Long regionId, String shard) {
+        return regiones.computeIfAbsent(regionId,
+                id -> new VentasRegionDto(id, nombres.get(id), shard, 0L, 0.0, 0.0));
+    }
+
+    private record VentasShard(List<ConteoRegionView> conteos, List<VentaCategoriaView> ventas) {
+    }
+}
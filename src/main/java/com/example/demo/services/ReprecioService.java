@@ -0,0 +1,380 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.ReprecioPorcentajeDto;
+import com.example.demo.models.EstadoReprecio;
+import com.example.demo.models.ParticionReprecio;
+import com.example.demo.models.TipoReprecio;
+import com.example.demo.models.TrabajoReprecio;
+import com.example.demo.projections.RangoIdsView;
+import com.example.demo.repositories.ParticionReprecioRepository;
+import com.example.demo.repositories.PrecioReprecioRepository;
+import com.example.demo.repositories.ProductoRepository;
+import com.example.demo.repositories.TrabajoReprecioRepository;
+import com.example.demo.responses.TrabajoReprecioResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reprecio masivo del catálogo.
+ *
+ * <p>Un trabajo divide la tabla productos en rangos de ids (particiones) y las reparte entre
+ * {@code trabajadores} hilos. Cada hilo recorre su partición en lotes de {@code tamanoLote} ids;
+ * cada lote es una sentencia UPDATE y el avance de la partición se confirma en la misma transacción,
+ * así que las transacciones son cortas y un trabajo interrumpido se reanuda desde su último lote
+ * confirmado sin aplicar dos veces ningún cambio.</p>
+ *
+ * <p>Si la aplicación se detiene con un trabajo en marcha, el trabajo se deja {@code EN_CURSO} y se
+ * reanuda al arrancar.</p>
+ */
+@Service
+public class ReprecioService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReprecioService.class);
+
+    private static final int MAX_TRABAJADORES = 32;
+    private static final int MAX_TAMANO_LOTE = 10_000;
+    // Más particiones que hilos para que un rango denso no deje al resto de hilos ociosos.
+    private static final int PARTICIONES_POR_TRABAJADOR = 4;
+    private static final int LOTE_CARGA_ARCHIVO = 1000;
+
+    private final TrabajoReprecioRepository trabajoReprecioRepository;
+    private final ParticionReprecioRepository particionReprecioRepository;
+    private final PrecioReprecioRepository precioReprecioRepository;
+    private final ProductoRepository productoRepository;
+    private final ShardService shardService;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final ExecutorService coordinador = Executors.newSingleThreadExecutor();
+    // Trabajos lanzados en esta instancia que aún no han terminado.
+    private final Set<Long> enEjecucion = ConcurrentHashMap.newKeySet();
+    private volatile boolean deteniendo;
+
+    public ReprecioService(TrabajoReprecioRepository trabajoReprecioRepository,
+                           ParticionReprecioRepository particionReprecioRepository,
+                           PrecioReprecioRepository precioReprecioRepository,
+                           ProductoRepository productoRepository,
+                           ShardService shardService,
+                           JdbcTemplate jdbcTemplate,
+                           PlatformTransactionManager transactionManager) {
+        this.trabajoReprecioRepository = trabajoReprecioRepository;
+        this.particionReprecioRepository = particionReprecioRepository;
+        this.precioReprecioRepository = precioReprecioRepository;
+        this.productoRepository = productoRepository;
+        this.shardService = shardService;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Crea y lanza un trabajo que aplica una variación porcentual a los precios.
+     */
+    public TrabajoReprecioResponse iniciarPorcentaje(ReprecioPorcentajeDto input) {
+        if (input.getPorcentaje() == null || input.getPorcentaje() <= -100) {
+            throw new IllegalArgumentException("El porcentaje debe ser mayor que -100");
+        }
+        TrabajoReprecio trabajo = nuevoTrabajo(TipoReprecio.PORCENTAJE, input.getTrabajadores(), input.getTamanoLote());
+        trabajo.setCategoria(input.getCategoria());
+        trabajo.setPorcentaje(input.getPorcentaje());
+
+        TrabajoReprecio guardado = transactionTemplate.execute(status -> {
+            TrabajoReprecio nuevo = trabajoReprecioRepository.save(trabajo);
+            planificar(nuevo, productoRepository.findRangoIds(nuevo.getCategoria()));
+            return nuevo;
+        });
+        return lanzar(guardado);
+    }
+
+    /**
+     * Crea y lanza un trabajo que aplica los precios de un CSV con líneas {@code productoId,precio}.
+     * La primera línea se ignora si no es numérica (cabecera).
+     *
+     * @throws IllegalArgumentException Si una línea es inválida o un producto está repetido o no existe.
+     */
+    public TrabajoReprecioResponse iniciarArchivo(InputStream csv, Integer trabajadores, Integer tamanoLote) {
+        TrabajoReprecio trabajo = nuevoTrabajo(TipoReprecio.ARCHIVO, trabajadores, tamanoLote);
+
+        TrabajoReprecio guardado = transactionTemplate.execute(status -> {
+            TrabajoReprecio nuevo = trabajoReprecioRepository.save(trabajo);
+            try {
+                cargarPrecios(nuevo.getId(), csv);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("No se pudo leer el archivo de precios", e);
+            }
+            planificar(nuevo, precioReprecioRepository.findRangoByTrabajoId(nuevo.getId()));
+            return nuevo;
+        });
+        return lanzar(guardado);
+    }
+
+    /**
+     * Vuelve a lanzar un trabajo fallido o interrumpido desde sus puntos de control.
+     *
+     * @throws IllegalArgumentException Si el trabajo ya se está ejecutando.
+     */
+    public Optional<TrabajoReprecioResponse> reanudar(Long id) {
+        return trabajoReprecioRepository.findById(id).map(trabajo -> {
+            if (trabajo.getEstado() == EstadoReprecio.COMPLETADO) {
+                return respuesta(trabajo);
+            }
+            return lanzar(trabajo);
+        });
+    }
+
+    /**
+     * Los trabajos que estaban en curso cuando se detuvo la aplicación se reanudan al arrancar.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void reanudarInterrumpidos() {
+        for (TrabajoReprecio trabajo : trabajoReprecioRepository.findByEstado(EstadoReprecio.EN_CURSO)) {
+            log.info("Reanudando trabajo de reprecio {}", trabajo.getId());
+            lanzar(trabajo);
+        }
+    }
+
+    public Optional<TrabajoReprecioResponse> findById(Long id) {
+        return trabajoReprecioRepository.findById(id).map(this::respuesta);
+    }
+
+    public List<TrabajoReprecioResponse> findAll() {
+        return trabajoReprecioRepository.findAllByOrderByIdDesc().stream().map(this::respuesta).toList();
+    }
+
+    @PreDestroy
+    public void detener() {
+        deteniendo = true;
+        coordinador.shutdownNow();
+    }
+
+    private TrabajoReprecio nuevoTrabajo(TipoReprecio tipo, Integer trabajadores, Integer tamanoLote) {
+        int hilos = trabajadores == null
+                ? Math.min(Runtime.getRuntime().availableProcessors(), MAX_TRABAJADORES) : trabajadores;
+        int lote = tamanoLote == null ? 500 : tamanoLote;
+        if (hilos < 1 || hilos > MAX_TRABAJADORES) {
+            throw new IllegalArgumentException("El número de trabajadores debe estar entre 1 y " + MAX_TRABAJADORES);
+        }
+        if (lote < 1 || lote > MAX_TAMANO_LOTE) {
+            throw new IllegalArgumentException("El tamaño de lote debe estar entre 1 y " + MAX_TAMANO_LOTE);
+        }
+
+        TrabajoReprecio trabajo = new TrabajoReprecio();
+        trabajo.setTipo(tipo);
+        trabajo.setTrabajadores(hilos);
+        trabajo.setTamanoLote(lote);
+        return trabajo;
+    }
+
+    private void cargarPrecios(Long trabajoId, InputStream csv) throws IOException {
+        BufferedReader lector = new BufferedReader(new InputStreamReader(csv, StandardCharsets.UTF_8));
+        List<Object[]> lote = new ArrayList<>(LOTE_CARGA_ARCHIVO);
+        Set<Long> vistos = new HashSet<>();
+        String linea;
+        int numero = 0;
+        while ((linea = lector.readLine()) != null) {
+            numero++;
+            if (linea.isBlank()) {
+                continue;
+            }
+            String[] campos = linea.split("[,;]");
+            if (campos.length < 2) {
+                throw new IllegalArgumentException("Línea " + numero + " inválida: " + linea);
+            }
+            long productoId;
+            double precio;
+            try {
+                productoId = Long.parseLong(campos[0].trim());
+                precio = Double.parseDouble(campos[1].trim());
+            } catch (NumberFormatException e) {
+                if (numero == 1) {
+                    continue;
+                }
+                throw new IllegalArgumentException("Línea " + numero + " inválida: " + linea);
+            }
+            if (precio < 0) {
+                throw new IllegalArgumentException("Precio negativo en la línea " + numero);
+            }
+            if (!vistos.add(productoId)) {
+                throw new IllegalArgumentException("Producto " + productoId + " repetido en la línea " + numero);
+            }
+            lote.add(new Object[]{trabajoId, productoId, precio});
+            if (lote.size() == LOTE_CARGA_ARCHIVO) {
+                insertarPrecios(lote);
+                lote.clear();
+            }
+        }
+        insertarPrecios(lote);
+
+        // Una sola consulta al final en lugar de una por línea; la excepción revierte la carga.
+        Long desconocido = jdbcTemplate.queryForObject("SELECT MIN(r.producto_id) FROM precios_reprecio r " +
+                "LEFT JOIN productos p ON p.id = r.producto_id WHERE r.trabajo_id = ? AND p.id IS NULL",
+                Long.class, trabajoId);
+        if (desconocido != null) {
+            throw new IllegalArgumentException("El producto " + desconocido + " no existe");
+        }
+    }
+
+    private void insertarPrecios(List<Object[]> lote) {
+        if (!lote.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO precios_reprecio (trabajo_id, producto_id, precio) VALUES (?, ?, ?)", lote);
+        }
+    }
+
+    private void planificar(TrabajoReprecio trabajo, RangoIdsView rango) {
+        trabajo.setTotalProductos(rango.getTotal());
+        if (rango.getMinId() == null) {
+            return;
+        }
+
+        long desde = rango.getMinId() - 1;
+        long hasta = rango.getMaxId();
+        int particiones = trabajo.getTrabajadores() * PARTICIONES_POR_TRABAJADOR;
+        long ancho = Math.max(1, (hasta - desde + particiones - 1) / particiones);
+        for (long inicio = desde; inicio < hasta; inicio += ancho) {
+            ParticionReprecio particion = new ParticionReprecio();
+            particion.setTrabajoId(trabajo.getId());
+            particion.setDesdeId(inicio);
+            particion.setHastaId(Math.min(inicio + ancho, hasta));
+            particion.setUltimoId(inicio);
+            particion.setProcesados(0L);
+            particionReprecioRepository.save(particion);
+        }
+    }
+
+    private TrabajoReprecioResponse lanzar(TrabajoReprecio trabajo) {
+        // Dos ejecuciones a la vez repetirían el avance y sumarían dos veces el tiempo transcurrido.
+        if (!enEjecucion.add(trabajo.getId())) {
+            throw new IllegalArgumentException("El trabajo de reprecio " + trabajo.getId() + " ya está en curso");
+        }
+        try {
+            trabajo.setEstado(EstadoReprecio.EN_CURSO);
+            trabajo.setError(null);
+            trabajo.setIniciadoAt(new Date());
+            trabajo.setFinalizadoAt(null);
+            TrabajoReprecio guardado = trabajoReprecioRepository.save(trabajo);
+            coordinador.submit(() -> {
+                try {
+                    ejecutar(guardado);
+                } finally {
+                    enEjecucion.remove(guardado.getId());
+                }
+            });
+            return respuesta(guardado);
+        } catch (RuntimeException e) {
+            enEjecucion.remove(trabajo.getId());
+            throw e;
+        }
+    }
+
+    private void ejecutar(TrabajoReprecio trabajo) {
+        List<ParticionReprecio> pendientes = particionReprecioRepository.findByTrabajoIdOrderByDesdeId(trabajo.getId())
+                .stream().filter(particion -> particion.getUltimoId() < particion.getHastaId()).toList();
+
+        ExecutorService trabajadores = Executors.newFixedThreadPool(trabajo.getTrabajadores());
+        String error = null;
+        try {
+            List<Future<?>> tareas = new ArrayList<>();
+            for (ParticionReprecio particion : pendientes) {
+                tareas.add(trabajadores.submit(() -> procesarParticion(trabajo, particion)));
+            }
+            for (Future<?> tarea : tareas) {
+                tarea.get();
+            }
+        } catch (ExecutionException e) {
+            error = String.valueOf(e.getCause().getMessage());
+            log.error("Falló el trabajo de reprecio {}", trabajo.getId(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Trabajo interrumpido";
+        } finally {
+            trabajadores.shutdownNow();
+        }
+
+        if (deteniendo) {
+            // Parada de la aplicación: el trabajo sigue EN_CURSO y reanudarInterrumpidos lo retoma al arrancar.
+            log.info("Trabajo de reprecio {} interrumpido por la parada; se reanudará al arrancar", trabajo.getId());
+            return;
+        }
+
+        Date fin = new Date();
+        trabajo.setMilisegundosPrevios(trabajo.getMilisegundosPrevios() + fin.getTime() - trabajo.getIniciadoAt().getTime());
+        trabajo.setFinalizadoAt(fin);
+        trabajo.setEstado(error == null ? EstadoReprecio.COMPLETADO : EstadoReprecio.FALLIDO);
+        trabajo.setError(error == null || error.length() <= 500 ? error : error.substring(0, 500));
+        transactionTemplate.executeWithoutResult(status -> {
+            trabajoReprecioRepository.save(trabajo);
+            if (trabajo.getEstado() == EstadoReprecio.COMPLETADO && trabajo.getTipo() == TipoReprecio.ARCHIVO) {
+                precioReprecioRepository.deleteByTrabajoId(trabajo.getId());
+            }
+        });
+
+        if (trabajo.getEstado() == EstadoReprecio.COMPLETADO) {
+            // Los shards de clientes leen su propia copia de productos.
+            try {
+                shardService.replicarReferencias();
+            } catch (RuntimeException e) {
+                log.error("No se pudieron replicar los precios del trabajo {} a los shards", trabajo.getId(), e);
+            }
+        }
+    }
+
+    private void procesarParticion(TrabajoReprecio trabajo, ParticionReprecio particion) {
+        double factor = trabajo.getTipo() == TipoReprecio.PORCENTAJE ? 1 + trabajo.getPorcentaje() / 100.0 : 0;
+        long desde = particion.getUltimoId();
+        while (desde < particion.getHastaId()) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new IllegalStateException("Partición " + particion.getId() + " interrumpida");
+            }
+            long inicio = desde;
+            long fin = Math.min(desde + trabajo.getTamanoLote(), particion.getHastaId());
+            transactionTemplate.executeWithoutResult(status -> {
+                int filas = trabajo.getTipo() == TipoReprecio.PORCENTAJE
+                        ? productoRepository.aplicarFactor(factor, trabajo.getCategoria(), inicio, fin)
+                        : productoRepository.aplicarPrecios(trabajo.getId(), inicio, fin);
+                // Si otro hilo ya confirmó este lote (reanudación concurrente), se revierte el UPDATE.
+                if (particionReprecioRepository.registrarAvance(particion.getId(), fin, filas) == 0) {
+                    status.setRollbackOnly();
+                }
+            });
+            desde = fin;
+        }
+    }
+
+    private TrabajoReprecioResponse respuesta(TrabajoReprecio trabajo) {
+        long procesados = particionReprecioRepository.sumProcesadosByTrabajoId(trabajo.getId());
+        long milisegundos = trabajo.getMilisegundosPrevios();
+        if (trabajo.getEstado() == EstadoReprecio.EN_CURSO && trabajo.getIniciadoAt() != null) {
+            milisegundos += System.currentTimeMillis() - trabajo.getIniciadoAt().getTime();
+        }
+        Long total = trabajo.getTotalProductos();
+        double avance = total == null || total == 0 ? 100.0 : Math.min(100.0, procesados * 100.0 / total);
+        double filasPorSegundo = milisegundos == 0 ? 0.0 : procesados * 1000.0 / milisegundos;
+
+        return new TrabajoReprecioResponse(trabajo.getId(), trabajo.getTipo(), trabajo.getEstado(),
+                trabajo.getCategoria(), trabajo.getPorcentaje(), trabajo.getTrabajadores(), trabajo.getTamanoLote(),
+                total, procesados, avance, milisegundos, filasPorSegundo, trabajo.getError());
+    }
+}
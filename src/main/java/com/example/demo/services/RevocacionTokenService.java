@@ -0,0 +1,183 @@
+package com.example.demo.services;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lista de tokens JWT revocados, consultada en cada petición autenticada.
+ *
+ * <p>La consulta pasa primero por un {@link FiltroBloom}: para casi todos los tokens (los no
+ * revocados) responde "no" sin tocar el conjunto exacto. Solo los positivos del filtro, que incluyen
+ * sus falsos positivos, se confirman contra el mapa exacto {@code jti -> expiración}. Las entradas se
+ * eliminan cuando el token expira, porque a partir de ahí el propio JWT ya es inválido.</p>
+ *
+ * <p>El estado se guarda en un archivo de solo anexado que se compacta al arrancar y al purgar, así
+ * sobrevive a reinicios.</p>
+ */
+@Service
+public class RevocacionTokenService {
+
+    private static final Logger log = LoggerFactory.getLogger(RevocacionTokenService.class);
+
+    private static final double FALSOS_POSITIVOS = 0.01;
+    private static final String TOKEN = "T";
+
+    private final Path archivo;
+    private final Map<String, Long> tokens = new ConcurrentHashMap<>();
+    private final Object cerrojo = new Object();
+
+    private volatile FiltroBloom filtro;
+    private int capacidad;
+    private BufferedWriter escritor;
+
+    public RevocacionTokenService(@Value("${facturacion.revocacion.archivo:data/tokens-revocados.log}") String archivo,
+                                  @Value("${facturacion.revocacion.capacidad:100000}") int capacidad) {
+        this.archivo = Paths.get(archivo);
+        this.capacidad = capacidad;
+        this.filtro = new FiltroBloom(capacidad, FALSOS_POSITIVOS);
+    }
+
+    /**
+     * Carga el archivo descartando lo que ya expiró y lo reescribe compactado.
+     */
+    @PostConstruct
+    public void cargar() throws IOException {
+        if (archivo.getParent() != null) {
+            Files.createDirectories(archivo.getParent());
+        }
+        if (Files.exists(archivo)) {
+            long ahora = System.currentTimeMillis();
+            for (String linea : Files.readAllLines(archivo, StandardCharsets.UTF_8)) {
+                String[] campos = linea.split("\t");
+                if (campos.length != 3) {
+                    continue;
+                }
+                long instante;
+                try {
+                    instante = Long.parseLong(campos[2]);
+                } catch (NumberFormatException e) {
+                    log.warn("Línea inválida en {}: {}", archivo, linea);
+                    continue;
+                }
+                if (TOKEN.equals(campos[0]) && instante > ahora) {
+                    tokens.put(campos[1], instante);
+                }
+            }
+        }
+
+        synchronized (cerrojo) {
+            reconstruirFiltro();
+            compactar();
+        }
+        log.info("Cargados {} tokens revocados", tokens.size());
+    }
+
+    /**
+     * Indica si un token está revocado. No toma cerrojos ni reserva memoria.
+     *
+     * @param jti Identificador del token.
+     */
+    public boolean estaRevocado(String jti) {
+        return jti != null && filtro.quizaContiene(jti) && tokens.containsKey(jti);
+    }
+
+    /**
+     * Revoca un token hasta su expiración.
+     */
+    public void revocarToken(String jti, Date expiracion) {
+        if (jti == null || expiracion == null || expiracion.getTime() <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (cerrojo) {
+            if (tokens.put(jti, expiracion.getTime()) != null) {
+                return;
+            }
+            if (tokens.size() > capacidad) {
+                // Pasada la capacidad la tasa de falsos positivos se dispara; se reconstruye con el doble.
+                capacidad *= 2;
+                reconstruirFiltro();
+            } else {
+                filtro.agregar(jti);
+            }
+            anexar(jti, expiracion.getTime());
+        }
+    }
+
+    /**
+     * Elimina las entradas expiradas, reconstruye el filtro y compacta el archivo.
+     */
+    @Scheduled(fixedDelayString = "${facturacion.revocacion.purga-ms:60000}")
+    public void purgar() {
+        long ahora = System.currentTimeMillis();
+        synchronized (cerrojo) {
+            if (!tokens.values().removeIf(expiracion -> expiracion <= ahora)) {
+                return;
+            }
+            reconstruirFiltro();
+            try {
+                compactar();
+            } catch (IOException e) {
+                log.error("No se pudo compactar {}", archivo, e);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void cerrar() throws IOException {
+        synchronized (cerrojo) {
+            if (escritor != null) {
+                escritor.close();
+            }
+        }
+    }
+
+    private void reconstruirFiltro() {
+        FiltroBloom nuevo = new FiltroBloom(Math.max(capacidad, tokens.size() * 2), FALSOS_POSITIVOS);
+        tokens.keySet().forEach(nuevo::agregar);
+        this.filtro = nuevo;
+    }
+
+    private void compactar() throws IOException {
+        if (escritor != null) {
+            escritor.close();
+        }
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        try (BufferedWriter salida = Files.newBufferedWriter(temporal, StandardCharsets.UTF_8)) {
+            for (Map.Entry<String, Long> token : tokens.entrySet()) {
+                salida.write(TOKEN + "\t" + token.getKey() + "\t" + token.getValue() + "\n");
+            }
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        escritor = Files.newBufferedWriter(archivo, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private void anexar(String jti, long expiracion) {
+        try {
+            escritor.write(String.join("\t", List.of(TOKEN, jti, Long.toString(expiracion))));
+            escritor.write('\n');
+            escritor.flush();
+        } catch (IOException e) {
+            throw new UncheckedIOException("No se pudo registrar la revocación en " + archivo, e);
+        }
+    }
+}
@@ -0,0 +1,405 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.ItemFacturaDto;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.List;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Segmento inmutable de facturas archivadas: un archivo {@code .seg} con bloques comprimidos con gzip
+ * y un índice {@code .idx} que se mantiene en memoria.
+ *
+ * <p>Cada bloque guarda hasta {@value #FACTURAS_POR_BLOQUE} facturas completas (cabecera, cliente y
+ * líneas) en binario. El índice lista, ordenadas por id, cada factura con su cliente y su bloque, y la
+ * posición de cada bloque en el archivo; buscar una factura o las de un cliente es una búsqueda binaria
+ * y la lectura y descompresión de los bloques afectados. Los dos archivos se escriben como temporales,
+ * se sincronizan y se renombran, primero los datos y después el índice; un segmento sin {@code .idx} es
+ * una escritura interrumpida.</p>
+ *
+ * <p>Los campos que pueden ser nulos (textos, región y campos numéricos de las líneas) van precedidos
+ * de una marca de presencia.</p>
+ */
+public final class SegmentoArchivo {
+
+    static final String EXTENSION_DATOS = ".seg";
+    static final String EXTENSION_INDICE = ".idx";
+    static final String EXTENSION_TEMPORAL = ".tmp";
+
+    private static final int MAGICO = 0x46414341;
+    private static final int VERSION = 2;
+    private static final int FACTURAS_POR_BLOQUE = 64;
+    // Mágico, versión, número de facturas y de bloques; después 12 bytes por bloque y 20 por factura.
+    private static final int CABECERA_INDICE = 16;
+
+    private final Path datos;
+    private final long[] ids;
+    private final long[] clientes;
+    private final int[] bloqueDe;
+    private final long[] posiciones;
+    private final int[] longitudes;
+    // Posiciones de ids/clientes ordenadas por cliente.
+    private final int[] porCliente;
+
+    private SegmentoArchivo(Path datos, long[] ids, long[] clientes, int[] bloqueDe, long[] posiciones,
+                            int[] longitudes) {
+        this.datos = datos;
+        this.ids = ids;
+        this.clientes = clientes;
+        this.bloqueDe = bloqueDe;
+        this.posiciones = posiciones;
+        this.longitudes = longitudes;
+        this.porCliente = IntStream.range(0, ids.length).boxed()
+                .sorted(Comparator.comparingLong((Integer i) -> clientes[i]).thenComparingLong(i -> ids[i]))
+                .mapToInt(Integer::intValue)
+                .toArray();
+    }
+
+    /**
+     * Escribe un segmento con las facturas dadas, ordenadas por id, y lo deja sincronizado en disco junto
+     * con los nombres definitivos de sus archivos.
+     *
+     * @param base Ruta sin extensión del segmento.
+     */
+    static SegmentoArchivo escribir(Path base, List<FacturaDetalleDto> facturas) throws IOException {
+        List<FacturaDetalleDto> ordenadas = new ArrayList<>(facturas);
+        ordenadas.sort(Comparator.comparing(FacturaDetalleDto::getId));
+
+        int n = ordenadas.size();
+        int numBloques = (n + FACTURAS_POR_BLOQUE - 1) / FACTURAS_POR_BLOQUE;
+        long[] ids = new long[n];
+        long[] clientes = new long[n];
+        int[] bloqueDe = new int[n];
+        long[] posiciones = new long[numBloques];
+        int[] longitudes = new int[numBloques];
+
+        Path datos = conExtension(base, EXTENSION_DATOS);
+        Path datosTemporal = conExtension(base, EXTENSION_DATOS + EXTENSION_TEMPORAL);
+        try (FileOutputStream archivo = new FileOutputStream(datosTemporal.toFile())) {
+            long posicion = 0;
+            for (int bloque = 0; bloque < numBloques; bloque++) {
+                int desde = bloque * FACTURAS_POR_BLOQUE;
+                int hasta = Math.min(n, desde + FACTURAS_POR_BLOQUE);
+                for (int i = desde; i < hasta; i++) {
+                    ids[i] = ordenadas.get(i).getId();
+                    clientes[i] = ordenadas.get(i).getClienteId();
+                    bloqueDe[i] = bloque;
+                }
+                byte[] comprimido = comprimir(ordenadas.subList(desde, hasta));
+                archivo.write(comprimido);
+                posiciones[bloque] = posicion;
+                longitudes[bloque] = comprimido.length;
+                posicion += comprimido.length;
+            }
+            archivo.getFD().sync();
+        }
+
+        Path indiceTemporal = conExtension(base, EXTENSION_INDICE + EXTENSION_TEMPORAL);
+        try (FileOutputStream archivo = new FileOutputStream(indiceTemporal.toFile());
+             DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(archivo))) {
+            salida.writeInt(MAGICO);
+            salida.writeInt(VERSION);
+            salida.writeInt(n);
+            salida.writeInt(numBloques);
+            for (int bloque = 0; bloque < numBloques; bloque++) {
+                salida.writeLong(posiciones[bloque]);
+                salida.writeInt(longitudes[bloque]);
+            }
+            for (int i = 0; i < n; i++) {
+                salida.writeLong(ids[i]);
+                salida.writeLong(clientes[i]);
+                salida.writeInt(bloqueDe[i]);
+            }
+            salida.flush();
+            archivo.getFD().sync();
+        }
+
+        Files.move(datosTemporal, datos, StandardCopyOption.ATOMIC_MOVE);
+        Files.move(indiceTemporal, conExtension(base, EXTENSION_INDICE), StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio(datos);
+        return new SegmentoArchivo(datos, ids, clientes, bloqueDe, posiciones, longitudes);
+    }
+
+    /**
+     * Carga el índice de un segmento ya escrito.
+     */
+    static SegmentoArchivo abrir(Path indice) throws IOException {
+        String nombre = indice.getFileName().toString();
+        return leerIndice(indice, indice.resolveSibling(
+                nombre.substring(0, nombre.length() - EXTENSION_INDICE.length()) + EXTENSION_DATOS));
+    }
+
+    /**
+     * Termina una escritura interrumpida antes de renombrar su índice. Si el índice temporal está entero y
+     * describe exactamente los datos, temporales o ya renombrados, renombra lo que falte y devuelve el
+     * segmento; si no, devuelve {@code null} y deja los archivos como están.
+     *
+     * @param indiceTemporal Archivo {@code .idx.tmp} del segmento.
+     */
+    static SegmentoArchivo recuperar(Path indiceTemporal) throws IOException {
+        String nombre = indiceTemporal.getFileName().toString();
+        Path base = indiceTemporal.resolveSibling(
+                nombre.substring(0, nombre.length() - (EXTENSION_INDICE + EXTENSION_TEMPORAL).length()));
+        Path datos = conExtension(base, EXTENSION_DATOS);
+        Path datosTemporal = conExtension(base, EXTENSION_DATOS + EXTENSION_TEMPORAL);
+        Path origen = Files.exists(datosTemporal) ? datosTemporal : datos;
+        if (!Files.exists(origen)) {
+            return null;
+        }
+        SegmentoArchivo segmento;
+        try {
+            segmento = leerIndice(indiceTemporal, datos);
+        } catch (IOException e) {
+            return null;
+        }
+        if (Files.size(origen) != segmento.getBytes()) {
+            return null;
+        }
+
+        if (origen.equals(datosTemporal)) {
+            Files.move(datosTemporal, datos, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(indiceTemporal, conExtension(base, EXTENSION_INDICE), StandardCopyOption.ATOMIC_MOVE);
+        sincronizarDirectorio(datos);
+        return segmento;
+    }
+
+    /**
+     * Sincroniza el directorio de un archivo para que sus altas, bajas y renombrados sobrevivan a una
+     * caída del sistema.
+     */
+    static void sincronizarDirectorio(Path archivo) throws IOException {
+        try (FileChannel directorio = FileChannel.open(archivo.toAbsolutePath().getParent(), StandardOpenOption.READ)) {
+            directorio.force(true);
+        }
+    }
+
+    private static SegmentoArchivo leerIndice(Path indice, Path datos) throws IOException {
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(Files.newInputStream(indice)))) {
+            if (entrada.readInt() != MAGICO || entrada.readInt() != VERSION) {
+                throw new IOException("Formato de índice desconocido: " + indice);
+            }
+            int n = entrada.readInt();
+            int numBloques = entrada.readInt();
+            if (n < 0 || numBloques < 0 || Files.size(indice) != CABECERA_INDICE + 12L * numBloques + 20L * n) {
+                throw new IOException("Índice incompleto: " + indice);
+            }
+            long[] posiciones = new long[numBloques];
+            int[] longitudes = new int[numBloques];
+            for (int bloque = 0; bloque < numBloques; bloque++) {
+                posiciones[bloque] = entrada.readLong();
+                longitudes[bloque] = entrada.readInt();
+            }
+            long[] ids = new long[n];
+            long[] clientes = new long[n];
+            int[] bloqueDe = new int[n];
+            for (int i = 0; i < n; i++) {
+                ids[i] = entrada.readLong();
+                clientes[i] = entrada.readLong();
+                bloqueDe[i] = entrada.readInt();
+            }
+            return new SegmentoArchivo(datos, ids, clientes, bloqueDe, posiciones, longitudes);
+        }
+    }
+
+    /**
+     * Borra los archivos del segmento, por ejemplo si el archivado que lo escribió se revirtió.
+     */
+    void borrar() throws IOException {
+        String nombre = datos.getFileName().toString();
+        Files.deleteIfExists(datos.resolveSibling(
+                nombre.substring(0, nombre.length() - EXTENSION_DATOS.length()) + EXTENSION_INDICE));
+        Files.deleteIfExists(datos);
+        sincronizarDirectorio(datos);
+    }
+
+    public boolean contiene(long facturaId) {
+        return Arrays.binarySearch(ids, facturaId) >= 0;
+    }
+
+    public FacturaDetalleDto buscar(long facturaId) throws IOException {
+        int posicion = Arrays.binarySearch(ids, facturaId);
+        if (posicion < 0) {
+            return null;
+        }
+        for (FacturaDetalleDto factura : leerBloque(bloqueDe[posicion])) {
+            if (factura.getId() == facturaId) {
+                return factura;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Facturas de un cliente, ordenadas por id.
+     */
+    public List<FacturaDetalleDto> buscarPorCliente(long clienteId) throws IOException {
+        int inicio = primeraDeCliente(clienteId);
+        TreeSet<Integer> bloques = new TreeSet<>();
+        for (int i = inicio; i < porCliente.length && clientes[porCliente[i]] == clienteId; i++) {
+            bloques.add(bloqueDe[porCliente[i]]);
+        }
+        List<FacturaDetalleDto> facturas = new ArrayList<>();
+        for (int bloque : bloques) {
+            for (FacturaDetalleDto factura : leerBloque(bloque)) {
+                if (factura.getClienteId() == clienteId) {
+                    facturas.add(factura);
+                }
+            }
+        }
+        return facturas;
+    }
+
+    public int getFacturas() {
+        return ids.length;
+    }
+
+    public long getBytes() {
+        return longitudes.length == 0 ? 0 : posiciones[longitudes.length - 1] + longitudes[longitudes.length - 1];
+    }
+
+    public Path getDatos() {
+        return datos;
+    }
+
+    private int primeraDeCliente(long clienteId) {
+        int bajo = 0;
+        int alto = porCliente.length;
+        while (bajo < alto) {
+            int medio = (bajo + alto) >>> 1;
+            if (clientes[porCliente[medio]] < clienteId) {
+                bajo = medio + 1;
+            } else {
+                alto = medio;
+            }
+        }
+        return bajo;
+    }
+
+    private List<FacturaDetalleDto> leerBloque(int bloque) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(longitudes[bloque]);
+        try (FileChannel canal = FileChannel.open(datos, StandardOpenOption.READ)) {
+            while (buffer.hasRemaining()) {
+                if (canal.read(buffer, posiciones[bloque] + buffer.position()) < 0) {
+                    throw new IOException("Segmento truncado: " + datos);
+                }
+            }
+        }
+        try (DataInputStream entrada = new DataInputStream(new BufferedInputStream(
+                new GZIPInputStream(new ByteArrayInputStream(buffer.array()))))) {
+            int n = entrada.readInt();
+            List<FacturaDetalleDto> facturas = new ArrayList<>(n);
+            for (int i = 0; i < n; i++) {
+                facturas.add(leerFactura(entrada));
+            }
+            return facturas;
+        }
+    }
+
+    private static byte[] comprimir(List<FacturaDetalleDto> facturas) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream salida = new DataOutputStream(new BufferedOutputStream(new GZIPOutputStream(bytes)))) {
+            salida.writeInt(facturas.size());
+            for (FacturaDetalleDto factura : facturas) {
+                escribirFactura(salida, factura);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void escribirFactura(DataOutputStream salida, FacturaDetalleDto factura) throws IOException {
+        salida.writeLong(factura.getId());
+        escribirTexto(salida, factura.getDescripcion());
+        escribirTexto(salida, factura.getObservacion());
+        salida.writeLong(factura.getCreateAt() == null ? Long.MIN_VALUE
+                : new java.sql.Date(factura.getCreateAt().getTime()).toLocalDate().toEpochDay());
+        salida.writeLong(factura.getClienteId());
+        escribirTexto(salida, factura.getClienteNombre());
+        escribirTexto(salida, factura.getClienteApellido());
+        escribirLargo(salida, factura.getRegionId());
+        salida.writeInt(factura.getItems().size());
+        for (ItemFacturaDto item : factura.getItems()) {
+            escribirLargo(salida, item.getId());
+            salida.writeBoolean(item.getCantidad() != null);
+            if (item.getCantidad() != null) {
+                salida.writeInt(item.getCantidad());
+            }
+            escribirLargo(salida, item.getProductoId());
+            escribirTexto(salida, item.getProductoNombre());
+            escribirTexto(salida, item.getCategoria());
+            salida.writeBoolean(item.getPrecio() != null);
+            if (item.getPrecio() != null) {
+                salida.writeDouble(item.getPrecio());
+            }
+        }
+    }
+
+    private static FacturaDetalleDto leerFactura(DataInputStream entrada) throws IOException {
+        long id = entrada.readLong();
+        String descripcion = leerTexto(entrada);
+        String observacion = leerTexto(entrada);
+        long dia = entrada.readLong();
+        Date createAt = dia == Long.MIN_VALUE ? null : java.sql.Date.valueOf(LocalDate.ofEpochDay(dia));
+        FacturaDetalleDto factura = new FacturaDetalleDto(id, descripcion, observacion, createAt, entrada.readLong(),
+                leerTexto(entrada), leerTexto(entrada), leerLargo(entrada));
+        int items = entrada.readInt();
+        for (int i = 0; i < items; i++) {
+            Long itemId = leerLargo(entrada);
+            Integer cantidad = entrada.readBoolean() ? entrada.readInt() : null;
+            Long productoId = leerLargo(entrada);
+            String productoNombre = leerTexto(entrada);
+            String categoria = leerTexto(entrada);
+            Double precio = entrada.readBoolean() ? entrada.readDouble() : null;
+            factura.getItems().add(new ItemFacturaDto(itemId, cantidad, productoId, productoNombre, categoria, precio));
+        }
+        return factura;
+    }
+
+    private static void escribirTexto(DataOutputStream salida, String texto) throws IOException {
+        salida.writeBoolean(texto != null);
+        if (texto != null) {
+            salida.writeUTF(texto);
+        }
+    }
+
+    private static String leerTexto(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readUTF() : null;
+    }
+
+    private static void escribirLargo(DataOutputStream salida, Long valor) throws IOException {
+        salida.writeBoolean(valor != null);
+        if (valor != null) {
+            salida.writeLong(valor);
+        }
+    }
+
+    private static Long leerLargo(DataInputStream entrada) throws IOException {
+        return entrada.readBoolean() ? entrada.readLong() : null;
+    }
+
+    private static Path conExtension(Path base, String extension) {
+        return base.resolveSibling(base.getFileName() + extension);
+    }
+}
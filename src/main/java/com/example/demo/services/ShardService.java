@@ -0,0 +1,465 @@
+package com.example.demo.services;
+
+import com.example.demo.config.EsquemaShards;
+import com.example.demo.config.ShardContexto;
+import com.example.demo.config.ShardRoutingDataSource;
+import com.example.demo.config.ShardingProperties;
+import com.example.demo.exceptions.RegionEnMovimientoException;
+import com.example.demo.models.RegionShard;
+import com.example.demo.repositories.ClienteRepository;
+import com.example.demo.repositories.FacturaRepository;
+import com.example.demo.repositories.RegionShardRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.beans.BeansException;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * Directorio y enrutado de shards. Los clientes, sus facturas y las líneas de éstas viven en el shard
+ * de la región del cliente; el resto de tablas vive en el principal.
+ *
+ * <p>El shard se resuelve antes de entrar en los servicios transaccionales: {@link #enCliente},
+ * {@link #enFactura} y sus variantes de escritura fijan el {@link ShardContexto} y después llaman a la
+ * acción, que abre su transacción ya sobre el shard correcto. La región de cada cliente y factura se
+ * averigua la primera vez consultando todos los shards en paralelo y se recuerda, porque no cambia.</p>
+ *
+ * <p>Con el particionado deshabilitado hay un único shard y todos los métodos llaman a la acción
+ * directamente.</p>
+ */
+@Service
+public class ShardService {
+
+    private static final Logger log = LoggerFactory.getLogger(ShardService.class);
+
+    private static final List<String> TABLAS_PARTICIONADAS = List.of("clientes", "facturas", "facturas_items");
+    private static final int MAX_CACHE = 100_000;
+
+    private final ShardingProperties properties;
+    private final Map<String, DataSource> dataSources = new LinkedHashMap<>();
+    private final List<String> shards;
+    private final boolean habilitado;
+    private final EsquemaShards esquemaShards;
+    private final RegionShardRepository regionShardRepository;
+    private final ClienteRepository clienteRepository;
+    private final FacturaRepository facturaRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate lecturaTemplate;
+    private final ExecutorService consultas;
+
+    private final Map<Long, Long> regionPorCliente = new ConcurrentHashMap<>();
+    private final Map<Long, Long> regionPorFactura = new ConcurrentHashMap<>();
+    private final Map<Long, ReentrantReadWriteLock> cerrojos = new ConcurrentHashMap<>();
+    private volatile Map<Long, String> directorio = Map.of();
+
+    public ShardService(ShardingProperties properties,
+                        DataSource dataSource,
+                        ObjectProvider<EsquemaShards> esquemaShards,
+                        RegionShardRepository regionShardRepository,
+                        ClienteRepository clienteRepository,
+                        FacturaRepository facturaRepository,
+                        PlatformTransactionManager transactionManager) {
+        this.properties = properties;
+        this.habilitado = dataSource instanceof ShardRoutingDataSource;
+        if (dataSource instanceof ShardRoutingDataSource routing) {
+            Map<Object, DataSource> resueltos = routing.getResolvedDataSources();
+            dataSources.put(properties.getPrincipal(), resueltos.get(properties.getPrincipal()));
+            properties.getShards().keySet().forEach(nombre -> dataSources.put(nombre, resueltos.get(nombre)));
+        } else {
+            dataSources.put(properties.getPrincipal(), dataSource);
+        }
+        this.shards = List.copyOf(dataSources.keySet());
+        this.esquemaShards = esquemaShards.getIfAvailable();
+        this.regionShardRepository = regionShardRepository;
+        this.clienteRepository = clienteRepository;
+        this.facturaRepository = facturaRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate = new TransactionTemplate(transactionManager);
+        this.lecturaTemplate.setReadOnly(true);
+        this.consultas = shards.size() > 1 ? Executors.newFixedThreadPool(shards.size()) : null;
+    }
+
+    /**
+     * Prepara los shards secundarios: esquema, ids intercalados, datos de referencia y directorio.
+     */
+    @PostConstruct
+    public void inicializar() {
+        if (!habilitado) {
+            return;
+        }
+        for (String shard : secundarios()) {
+            esquemaShards.exportar(shard);
+        }
+        prepararIdentidades();
+        replicarReferencias();
+        Map<Long, String> cargado = new HashMap<>();
+        ShardContexto.ejecutar(properties.getPrincipal(), () -> lecturaTemplate.execute(status -> {
+            regionShardRepository.findAll().forEach(region -> cargado.put(region.getRegionId(), region.getShard()));
+            return null;
+        }));
+        this.directorio = Map.copyOf(cargado);
+        log.info("Sharding habilitado con los shards {} y el directorio {}", shards, directorio);
+    }
+
+    @PreDestroy
+    public void detener() {
+        if (consultas != null) {
+            consultas.shutdownNow();
+        }
+    }
+
+    public boolean isHabilitado() {
+        return habilitado;
+    }
+
+    /**
+     * @return Nombres de los shards; el principal siempre es el primero.
+     */
+    public List<String> getShards() {
+        return shards;
+    }
+
+    public String getPrincipal() {
+        return properties.getPrincipal();
+    }
+
+    public Map<Long, String> getDirectorio() {
+        return directorio;
+    }
+
+    public String shardDeRegion(Long regionId) {
+        return regionId == null ? properties.getPrincipal() : directorio.getOrDefault(regionId, properties.getPrincipal());
+    }
+
+    /**
+     * Ejecuta una lectura en el shard del cliente. Un cliente inexistente se resuelve al principal,
+     * donde la acción se comportará como sin particionado (no lo encontrará).
+     */
+    public <T> T enCliente(Long clienteId, Supplier<T> accion) {
+        if (!habilitado) {
+            return accion.get();
+        }
+        return ShardContexto.ejecutar(shardDeRegion(regionDeCliente(clienteId)), accion);
+    }
+
+    public <T> T enFactura(Long facturaId, Supplier<T> accion) {
+        if (!habilitado) {
+            return accion.get();
+        }
+        return ShardContexto.ejecutar(shardDeRegion(regionDeFactura(facturaId)), accion);
+    }
+
+    /**
+     * Como {@link #enCliente}, pero falla con {@link RegionEnMovimientoException} si la región se está
+     * moviendo; mientras dura la escritura la región no puede empezar a moverse.
+     */
+    public <T> T escribirEnCliente(Long clienteId, Supplier<T> accion) {
+        if (!habilitado) {
+            return accion.get();
+        }
+        return escribirEnRegion(regionDeCliente(clienteId), accion);
+    }
+
+    public <T> T escribirEnFactura(Long facturaId, Supplier<T> accion) {
+        if (!habilitado) {
+            return accion.get();
+        }
+        return escribirEnRegion(regionDeFactura(facturaId), accion);
+    }
+
+    /**
+     * Ejecuta la consulta en todos los shards a la vez, cada uno en su propia transacción de solo
+     * lectura.
+     *
+     * @return Un resultado por shard, en el orden de {@link #getShards()}.
+     */
+    public <T> List<T> consultarTodos(Supplier<T> consulta) {
+        if (consultas == null) {
+            T resultado = lecturaTemplate.execute(status -> consulta.get());
+            return Collections.singletonList(resultado);
+        }
+        List<Future<T>> tareas = new ArrayList<>(shards.size());
+        for (String shard : shards) {
+            tareas.add(consultas.submit(() -> ShardContexto.ejecutar(shard,
+                    () -> lecturaTemplate.execute(status -> consulta.get()))));
+        }
+        List<T> resultados = new ArrayList<>(shards.size());
+        try {
+            for (Future<T> tarea : tareas) {
+                resultados.add(tarea.get());
+            }
+        } catch (ExecutionException e) {
+            tareas.forEach(tarea -> tarea.cancel(true));
+            if (e.getCause() instanceof RuntimeException runtime) {
+                throw runtime;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            tareas.forEach(tarea -> tarea.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Consulta entre shards interrumpida", e);
+        }
+        return resultados;
+    }
+
+    /**
+     * Pagina una consulta repartida entre shards. Cada shard devuelve sus primeras
+     * {@code offset + size} filas con el mismo orden y la página se corta tras mezclarlas, así que el
+     * coste crece con la profundidad de la página. Sin orden explícito se ordena por {@code id}.
+     */
+    public <T> Page<T> paginar(Pageable pageable, Function<Pageable, Page<T>> consulta) {
+        if (!habilitado || shards.size() == 1) {
+            return consulta.apply(pageable);
+        }
+        Sort orden = pageable.getSort().isSorted() ? pageable.getSort() : Sort.by("id");
+        Pageable porShard = pageable.isPaged()
+                ? PageRequest.of(0, (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize()), orden)
+                : Pageable.unpaged(orden);
+
+        List<Page<T>> paginas = consultarTodos(() -> consulta.apply(porShard));
+        long total = 0;
+        List<T> filas = new ArrayList<>();
+        for (Page<T> pagina : paginas) {
+            total += pagina.getTotalElements();
+            filas.addAll(pagina.getContent());
+        }
+        filas.sort(comparador(orden));
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(filas, pageable, total);
+        }
+        int desde = (int) Math.min(pageable.getOffset(), filas.size());
+        int hasta = Math.min(desde + pageable.getPageSize(), filas.size());
+        return new PageImpl<>(new ArrayList<>(filas.subList(desde, hasta)), pageable, total);
+    }
+
+    /**
+     * Copia las regiones y los productos del principal al resto de shards, insertando los que falten y
+     * actualizando los existentes. Los shards los necesitan para resolver las claves foráneas y los
+     * joins de clientes y facturas; nunca se escriben directamente en ellos.
+     */
+    public void replicarReferencias() {
+        if (!habilitado) {
+            return;
+        }
+        JdbcTemplate origen = new JdbcTemplate(dataSources.get(properties.getPrincipal()));
+        List<Object[]> regiones = origen.query("select nombre, id from regiones",
+                (rs, fila) -> new Object[]{rs.getString(1), rs.getLong(2)});
+        List<Object[]> productos = origen.query(
+                "select version, nombre, categoria, precio, create_at, id from productos",
+                (rs, fila) -> new Object[]{rs.getLong(1), rs.getString(2), rs.getString(3), rs.getObject(4),
+                        rs.getDate(5), rs.getLong(6)});
+
+        for (String shard : secundarios()) {
+            DataSource destino = dataSources.get(shard);
+            JdbcTemplate jdbc = new JdbcTemplate(destino);
+            new TransactionTemplate(new DataSourceTransactionManager(destino)).executeWithoutResult(status -> {
+                insertarFaltantes(jdbc, regiones,
+                        "update regiones set nombre = ? where id = ?",
+                        "insert into regiones (nombre, id) values (?, ?)");
+                insertarFaltantes(jdbc, productos,
+                        "update productos set version = ?, nombre = ?, categoria = ?, precio = ?, create_at = ? where id = ?",
+                        "insert into productos (version, nombre, categoria, precio, create_at, id) values (?, ?, ?, ?, ?, ?)");
+            });
+        }
+        log.info("Replicadas {} regiones y {} productos a {}", regiones.size(), productos.size(), secundarios());
+    }
+
+    /**
+     * DataSource sin enrutar de un shard, para copias masivas entre shards.
+     */
+    DataSource dataSource(String shard) {
+        DataSource dataSource = dataSources.get(shard);
+        if (dataSource == null) {
+            throw new IllegalArgumentException("Shard desconocido: " + shard);
+        }
+        return dataSource;
+    }
+
+    ReentrantReadWriteLock cerrojo(Long regionId) {
+        return cerrojos.computeIfAbsent(regionId, id -> new ReentrantReadWriteLock(true));
+    }
+
+    /**
+     * Registra la nueva ubicación de una región en el principal y la publica al resto de hilos.
+     */
+    void asignar(Long regionId, String shard) {
+        ShardContexto.ejecutar(properties.getPrincipal(), () -> transactionTemplate.execute(status -> {
+            RegionShard region = regionShardRepository.findById(regionId).orElseGet(RegionShard::new);
+            region.setRegionId(regionId);
+            region.setShard(shard);
+            return regionShardRepository.save(region);
+        }));
+        Map<Long, String> nuevo = new HashMap<>(directorio);
+        nuevo.put(regionId, shard);
+        this.directorio = Map.copyOf(nuevo);
+    }
+
+    private <T> T escribirEnRegion(Long regionId, Supplier<T> accion) {
+        if (regionId == null) {
+            return ShardContexto.ejecutar(properties.getPrincipal(), accion);
+        }
+        ReentrantReadWriteLock.ReadLock lectura = cerrojo(regionId).readLock();
+        try {
+            // Con tiempo de espera el cerrojo respeta el orden justo: no se adelanta a un movimiento en espera.
+            if (!lectura.tryLock(0, TimeUnit.SECONDS)) {
+                throw new RegionEnMovimientoException(regionId);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RegionEnMovimientoException(regionId);
+        }
+        try {
+            return ShardContexto.ejecutar(shardDeRegion(regionId), accion);
+        } finally {
+            lectura.unlock();
+        }
+    }
+
+    private Long regionDeCliente(Long clienteId) {
+        return buscarRegion(regionPorCliente, clienteId, () -> clienteRepository.findRegionIdById(clienteId));
+    }
+
+    private Long regionDeFactura(Long facturaId) {
+        return buscarRegion(regionPorFactura, facturaId, () -> facturaRepository.findRegionIdById(facturaId));
+    }
+
+    private Long buscarRegion(Map<Long, Long> cache, Long id, Supplier<Optional<Long>> consulta) {
+        if (id == null) {
+            return null;
+        }
+        Long region = cache.get(id);
+        if (region != null) {
+            return region;
+        }
+        region = consultarTodos(consulta).stream().flatMap(Optional::stream).findFirst().orElse(null);
+        if (region != null) {
+            if (cache.size() >= MAX_CACHE) {
+                cache.clear();
+            }
+            cache.put(id, region);
+        }
+        return region;
+    }
+
+    private List<String> secundarios() {
+        return shards.subList(1, shards.size());
+    }
+
+    /**
+     * Deja cada tabla particionada de cada shard generando ids mayores que cualquier id existente y
+     * congruentes con el índice del shard módulo {@code max-shards}. En MySQL la congruencia la pone
+     * la sesión (ver {@code ShardingConfiguration}); en H2 se configura en la propia columna.
+     */
+    private void prepararIdentidades() {
+        for (String shard : shards) {
+            alinearIdentidades(shard);
+        }
+    }
+
+    /**
+     * Realinea los ids de un shard. H2 mueve la secuencia de una identidad al insertar un id explícito
+     * y pierde la congruencia, así que hay que llamarlo después de copiar filas al shard; como H2 solo
+     * se usa para pruebas locales no se protege la ventana entre la copia y la realineación.
+     */
+    void alinearIdentidades(String shard) {
+        int modulo = properties.getMaxShards();
+        int indice = shards.indexOf(shard);
+        DataSource dataSource = dataSource(shard);
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String producto = productoBaseDatos(dataSource);
+        for (String tabla : TABLAS_PARTICIONADAS) {
+            long maximo = 0;
+            for (DataSource otro : dataSources.values()) {
+                Long max = new JdbcTemplate(otro).queryForObject("select max(id) from " + tabla, Long.class);
+                maximo = Math.max(maximo, max == null ? 0 : max);
+            }
+            if (producto.startsWith("MySQL")) {
+                jdbc.execute("alter table " + tabla + " auto_increment = " + (maximo + 1));
+            } else if (producto.startsWith("H2")) {
+                long siguiente = maximo + 1 + Math.floorMod(indice + 1 - (maximo + 1), modulo);
+                jdbc.execute("alter table " + tabla + " alter column id set increment by " + modulo);
+                jdbc.execute("alter table " + tabla + " alter column id restart with " + siguiente);
+            } else {
+                log.warn("No se pueden intercalar los ids de {} en {} ({}); pueden repetirse entre shards",
+                        tabla, shard, producto);
+            }
+        }
+    }
+
+    private static String productoBaseDatos(DataSource dataSource) {
+        try (Connection conexion = dataSource.getConnection()) {
+            return conexion.getMetaData().getDatabaseProductName();
+        } catch (SQLException e) {
+            throw new IllegalStateException("No se pudo consultar la base de datos del shard", e);
+        }
+    }
+
+    // La última columna de cada fila es el id: se usa como WHERE del UPDATE y como última del INSERT.
+    private static void insertarFaltantes(JdbcTemplate jdbc, List<Object[]> filas, String update, String insert) {
+        int[] actualizadas = jdbc.batchUpdate(update, filas);
+        List<Object[]> faltantes = new ArrayList<>();
+        for (int i = 0; i < actualizadas.length; i++) {
+            if (actualizadas[i] == 0) {
+                faltantes.add(filas.get(i));
+            }
+        }
+        if (!faltantes.isEmpty()) {
+            jdbc.batchUpdate(insert, faltantes);
+        }
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Comparator<T> comparador(Sort orden) {
+        Comparator<T> comparador = (a, b) -> 0;
+        for (Sort.Order campo : orden) {
+            Comparator<Comparable> valores = campo.isAscending()
+                    ? Comparator.nullsLast(Comparator.naturalOrder())
+                    : Comparator.nullsLast(Comparator.<Comparable>naturalOrder().reversed());
+            comparador = comparador.thenComparing(fila -> valor(fila, campo.getProperty()), valores);
+        }
+        return comparador;
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable valor(Object fila, String propiedad) {
+        try {
+            Object valor = new BeanWrapperImpl(fila).getPropertyValue(propiedad);
+            return valor == null ? null : (Comparable) valor;
+        } catch (BeansException | ClassCastException e) {
+            throw new IllegalArgumentException("No se puede ordenar por " + propiedad, e);
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.example.demo.services;
+
+import com.example.demo.projections.TasaImpuestoView;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Tabla de tasas de impuesto compilada e inmutable.
+ *
+ * <p>Las filas (región, categoría, tasa) se resuelven una sola vez al compilar: cada combinación
+ * región × categoría queda con su tasa efectiva (la de la categoría si existe, si no la general
+ * de la región, si no 0) en un arreglo plano. Consultar una tasa es una búsqueda binaria sobre
+ * las regiones más un acceso a arreglo, sin reservar memoria.</p>
+ */
+public final class TablaImpuestos {
+
+    /**
+     * Índice reservado para productos sin categoría o con una categoría sin tasas propias.
+     */
+    public static final int SIN_CATEGORIA = 0;
+
+    private static final TablaImpuestos VACIA = compilar(Collections.emptyList());
+
+    private final long[] regiones;
+    private final Map<String, Integer> categorias;
+    private final int numCategorias;
+    private final double[] tasas;
+
+    private TablaImpuestos(long[] regiones, Map<String, Integer> categorias, double[] tasas) {
+        this.regiones = regiones;
+        this.categorias = categorias;
+        this.numCategorias = categorias.size() + 1;
+        this.tasas = tasas;
+    }
+
+    public static TablaImpuestos vacia() {
+        return VACIA;
+    }
+
+    /**
+     * Compila las filas de tasas en una tabla de consulta.
+     *
+     * @param filas Filas de tasas; una categoría nula define la tasa general de la región.
+     * @return La tabla compilada.
+     * @throws IllegalArgumentException Si hay filas repetidas o tasas negativas.
+     */
+    public static TablaImpuestos compilar(Collection<? extends TasaImpuestoView> filas) {
+        TreeSet<Long> idsRegion = new TreeSet<>();
+        TreeSet<String> nombresCategoria = new TreeSet<>();
+        for (TasaImpuestoView fila : filas) {
+            idsRegion.add(fila.getRegionId());
+            if (fila.getCategoria() != null) {
+                nombresCategoria.add(fila.getCategoria());
+            }
+        }
+
+        long[] regiones = idsRegion.stream().mapToLong(Long::longValue).toArray();
+        Map<String, Integer> categorias = new HashMap<>();
+        for (String nombre : nombresCategoria) {
+            categorias.put(nombre, categorias.size() + 1);
+        }
+
+        int columnas = categorias.size() + 1;
+        double[] explicitas = new double[regiones.length * columnas];
+        Arrays.fill(explicitas, Double.NaN);
+        for (TasaImpuestoView fila : filas) {
+            if (fila.getTasa() == null || fila.getTasa() < 0) {
+                throw new IllegalArgumentException("Tasa inválida para la región " + fila.getRegionId());
+            }
+            int region = Arrays.binarySearch(regiones, fila.getRegionId());
+            int categoria = fila.getCategoria() == null ? SIN_CATEGORIA : categorias.get(fila.getCategoria());
+            int posicion = region * columnas + categoria;
+            if (!Double.isNaN(explicitas[posicion])) {
+                throw new IllegalArgumentException("Tasa repetida para la región " + fila.getRegionId()
+                        + " y la categoría " + fila.getCategoria());
+            }
+            explicitas[posicion] = fila.getTasa();
+        }
+
+        double[] tasas = new double[explicitas.length];
+        for (int region = 0; region < regiones.length; region++) {
+            double general = explicitas[region * columnas + SIN_CATEGORIA];
+            if (Double.isNaN(general)) {
+                general = 0.0;
+            }
+            for (int categoria = 0; categoria < columnas; categoria++) {
+                double tasa = explicitas[region * columnas + categoria];
+                tasas[region * columnas + categoria] = Double.isNaN(tasa) ? general : tasa;
+            }
+        }
+
+        return new TablaImpuestos(regiones, Collections.unmodifiableMap(categorias), tasas);
+    }
+
+    /**
+     * Traduce el nombre de una categoría a su índice en la tabla. Conviene resolverlo una vez por
+     * producto y reutilizar el índice en todas sus líneas.
+     */
+    public int indiceCategoria(String categoria) {
+        if (categoria == null) {
+            return SIN_CATEGORIA;
+        }
+        Integer indice = categorias.get(categoria);
+        return indice == null ? SIN_CATEGORIA : indice;
+    }
+
+    /**
+     * Tasa efectiva para una región y un índice de categoría; 0 si la región no tiene tasas.
+     */
+    public double tasa(long regionId, int categoria) {
+        int region = Arrays.binarySearch(regiones, regionId);
+        if (region < 0 || categoria < 0 || categoria >= numCategorias) {
+            return 0.0;
+        }
+        return tasas[region * numCategorias + categoria];
+    }
+
+    /**
+     * Impuesto de una línea: {@code cantidad * precio * tasa}.
+     */
+    public double impuesto(long regionId, int categoria, int cantidad, double precio) {
+        return cantidad * precio * tasa(regionId, categoria);
+    }
+
+    /**
+     * Calcula en bloque subtotales e impuestos de muchas facturas a partir de sus líneas en formato
+     * columnar. {@code factura[i]} es la posición (en los arreglos de salida) de la factura a la que
+     * pertenece la línea {@code i}; los resultados se suman sobre lo que ya contengan las salidas.
+     *
+     * @param lineas      Número de líneas válidas en los arreglos de entrada.
+     * @param factura     Posición de la factura de cada línea.
+     * @param region      Región de cada línea.
+     * @param categoria   Índice de categoría de cada línea (ver {@link #indiceCategoria(String)}).
+     * @param cantidad    Cantidad de cada línea.
+     * @param precio      Precio unitario de cada línea.
+     * @param subtotales  Salida: subtotal acumulado por factura.
+     * @param impuestos   Salida: impuesto acumulado por factura.
+     */
+    public void acumular(int lineas, int[] factura, long[] region, int[] categoria, int[] cantidad, double[] precio,
+                         double[] subtotales, double[] impuestos) {
+        long regionAnterior = Long.MIN_VALUE;
+        int base = -1;
+        for (int i = 0; i < lineas; i++) {
+            // Las líneas suelen venir agrupadas por factura, así que la región se repite y se evita la búsqueda.
+            if (region[i] != regionAnterior) {
+                regionAnterior = region[i];
+                int posicion = Arrays.binarySearch(regiones, regionAnterior);
+                base = posicion < 0 ? -1 : posicion * numCategorias;
+            }
+            double importe = cantidad[i] * precio[i];
+            int cat = categoria[i];
+            double tasa = base < 0 || cat < 0 || cat >= numCategorias ? 0.0 : tasas[base + cat];
+            subtotales[factura[i]] += importe;
+            impuestos[factura[i]] += importe * tasa;
+        }
+    }
+}
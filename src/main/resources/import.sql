@@ -33,14 +33,26 @@ INSERT INTO `usuarios_roles` (usuario_id, role_id) VALUES (1, 1);
 INSERT INTO `usuarios_roles` (usuario_id, role_id) VALUES (2, 2);
 INSERT INTO `usuarios_roles` (usuario_id, role_id) VALUES (2, 1);
 
+/* Tasas de impuesto por región; categoria NULL es la tasa general de la región */
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (1, NULL, 0.19);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (1, 'COMPUTACION', 0.10);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (2, NULL, 0.13);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (3, NULL, 0.07);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (3, 'HOGAR', 0.05);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (4, NULL, 0.21);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (4, 'DEPORTES', 0.10);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (5, NULL, 0.10);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (6, NULL, 0.15);
+INSERT INTO tasas_impuesto (region_id, categoria, tasa) VALUES (7, NULL, 0.10);
+
 /* Populate tabla productos */
-INSERT INTO productos (nombre, precio, create_at) VALUES('Panasonic Pantalla LCD', 259990, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Sony Camara digital DSC-W320B', 123490, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Apple iPod shuffle', 1499990, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Sony Notebook Z110', 37990, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Hewlett Packard Multifuncional F2280', 69990, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Bianchi Bicicleta Aro 26', 69990, NOW());
-INSERT INTO productos (nombre, precio, create_at) VALUES('Mica Comoda 5 Cajones', 299990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Panasonic Pantalla LCD', 'ELECTRONICA', 259990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Sony Camara digital DSC-W320B', 'ELECTRONICA', 123490, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Apple iPod shuffle', 'ELECTRONICA', 1499990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Sony Notebook Z110', 'COMPUTACION', 37990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Hewlett Packard Multifuncional F2280', 'COMPUTACION', 69990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Bianchi Bicicleta Aro 26', 'DEPORTES', 69990, NOW());
+INSERT INTO productos (nombre, categoria, precio, create_at) VALUES('Mica Comoda 5 Cajones', 'HOGAR', 299990, NOW());
 
 /* Creamos algunas facturas */
 INSERT INTO facturas (descripcion, observacion, cliente_id, create_at) VALUES('Factura equipos de oficina', null, 1, NOW());
@@ -0,0 +1,37 @@
+package com.example.demo;
+
+import com.example.demo.services.JwtService;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+
+/**
+ * Crea usuarios directamente en la base de datos y les emite un access token, sin pasar por el login.
+ * El username coincide con el email porque el filtro JWT busca al usuario por el subject del token.
+ */
+public final class UsuariosDePrueba {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JwtService jwtService;
+    private final UserDetailsService userDetailsService;
+
+    public UsuariosDePrueba(JdbcTemplate jdbcTemplate, JwtService jwtService, UserDetailsService userDetailsService) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jwtService = jwtService;
+        this.userDetailsService = userDetailsService;
+    }
+
+    /**
+     * Cabecera {@code Authorization} de un usuario con el rol indicado; lo crea si todavía no existe.
+     */
+    public String bearer(String email, String rol) {
+        Integer existentes = jdbcTemplate.queryForObject("select count(*) from usuarios where email = ?",
+                Integer.class, email);
+        if (existentes == 0) {
+            jdbcTemplate.update("insert into usuarios (username, password, enabled, email) values (?, 'x', true, ?)",
+                    email, email);
+            jdbcTemplate.update("insert into usuarios_roles (usuario_id, role_id) " +
+                    "select u.id, r.id from usuarios u, roles r where u.email = ? and r.nombre = ?", email, rol);
+        }
+        return "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername(email));
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.demo.config;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Sufijo {@code -gzip} de los ETag y respuestas 304 del filtro, con una cadena simulada.
+ */
+class GzipEtagFilterTests {
+
+    private static final String ETAG = "\"factura-1-3\"";
+    private static final String JSON = "{\"descripcion\":\"" + "x".repeat(200) + "\"}";
+
+    private final GzipEtagFilter filtro = new GzipEtagFilter(64);
+
+    private static MockHttpServletRequest peticion(String ifNoneMatch) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/api/facturas/1");
+        request.addHeader(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate");
+        if (ifNoneMatch != null) {
+            request.addHeader(HttpHeaders.IF_NONE_MATCH, ifNoneMatch);
+        }
+        return request;
+    }
+
+    // Responde con el ETag indicado: 304 si coincide con el If-None-Match que ve el controlador, si no el JSON.
+    private static FilterChain controlador(String etag, AtomicReference<String> ifNoneMatchVisto) {
+        return (request, response) -> {
+            String ifNoneMatch = ((HttpServletRequest) request).getHeader(HttpHeaders.IF_NONE_MATCH);
+            ifNoneMatchVisto.set(ifNoneMatch);
+            HttpServletResponse respuesta = (HttpServletResponse) response;
+            respuesta.setHeader(HttpHeaders.ETAG, etag);
+            if (etag.equals(ifNoneMatch)) {
+                respuesta.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return;
+            }
+            respuesta.setContentType(MediaType.APPLICATION_JSON_VALUE);
+            respuesta.getOutputStream().write(JSON.getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private static String descomprimir(byte[] cuerpo) throws IOException {
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(cuerpo))) {
+            return new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @Test
+    void comprimeYAnadeSufijoAlEtagFuerte() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion(null), response, controlador(ETAG, new AtomicReference<>()));
+
+        assertEquals(200, response.getStatus());
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("\"factura-1-3-gzip\"", response.getHeader(HttpHeaders.ETAG));
+        assertEquals(JSON, descomprimir(response.getContentAsByteArray()));
+    }
+
+    @Test
+    void elEtagDebilNoLlevaSufijo() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion(null), response, controlador("W/" + ETAG, new AtomicReference<>()));
+
+        assertEquals("gzip", response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals("W/" + ETAG, response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void quitaElSufijoDelIfNoneMatchYDevuelveElEtagComprimido() throws Exception {
+        AtomicReference<String> visto = new AtomicReference<>();
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion("\"factura-1-3-gzip\""), response, controlador(ETAG, visto));
+
+        assertEquals(ETAG, visto.get());
+        assertEquals(304, response.getStatus());
+        assertEquals("\"factura-1-3-gzip\"", response.getHeader(HttpHeaders.ETAG));
+    }
+
+    @Test
+    void noComprimeRespuestasPequenas() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        new GzipEtagFilter(4096).doFilter(peticion(null), response, controlador(ETAG, new AtomicReference<>()));
+
+        assertNull(response.getHeader(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+        assertEquals(JSON, response.getContentAsString());
+    }
+
+    @Test
+    void un304SinIfNoneMatchNoFalla() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filtro.doFilter(peticion(null), response, (request, respuesta) -> {
+            ((HttpServletResponse) respuesta).setHeader(HttpHeaders.ETAG, ETAG);
+            ((HttpServletResponse) respuesta).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+        });
+
+        assertEquals(304, response.getStatus());
+        assertEquals(ETAG, response.getHeader(HttpHeaders.ETAG));
+    }
+}
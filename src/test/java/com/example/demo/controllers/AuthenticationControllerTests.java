@@ -0,0 +1,189 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.models.Usuario;
+import com.example.demo.repositories.UserRepository;
+import com.example.demo.services.JwtService;
+import com.example.demo.services.RefreshTokenService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Rotación de refresh tokens, detección de reuso y logout con el access token expirado, con los
+ * eventos de auditoría que dejan.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class AuthenticationControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private RefreshTokenService refreshTokenService;
+
+    @Value("${facturacion.auditoria.archivo}")
+    private Path logAuditoria;
+
+    // Cada prueba usa su propio usuario para poder consultar sus tokens sin ver los de las demás.
+    private Usuario usuario(String email) {
+        new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService).bearer(email, "ROLE_USER");
+        return userRepository.findByEmail(email).orElseThrow();
+    }
+
+    private static String cuerpo(String refreshToken) {
+        return "{\"refreshToken\":\"" + refreshToken + "\"}";
+    }
+
+    private ResultActions refrescar(String refreshToken) throws Exception {
+        return mockMvc.perform(post("/auth/refresh")
+                .contentType(MediaType.APPLICATION_JSON).content(cuerpo(refreshToken)));
+    }
+
+    private String refreshTokenDe(ResultActions respuesta) throws Exception {
+        String json = respuesta.andReturn().getResponse().getContentAsString();
+        return json.replaceAll(".*\"refreshToken\":\"([^\"]+)\".*", "$1");
+    }
+
+    private Integer tokens(Usuario usuario, String condicion) {
+        return jdbcTemplate.queryForObject("select count(*) from refresh_tokens where usuario_id = ? and " + condicion,
+                Integer.class, usuario.getId());
+    }
+
+    private long finDelLog() throws Exception {
+        return Files.exists(logAuditoria) ? Files.size(logAuditoria) : 0;
+    }
+
+    // El escritor de auditoría es asíncrono: espera a que aparezca el evento después de la posición dada.
+    private void esperarEvento(long desde, String tipo, String usuario, String detalle) {
+        await().atMost(Duration.ofSeconds(10)).until(() -> {
+            byte[] contenido = Files.readAllBytes(logAuditoria);
+            String nuevos = new String(Arrays.copyOfRange(contenido, (int) Math.min(desde, contenido.length),
+                    contenido.length), StandardCharsets.UTF_8);
+            return nuevos.lines().anyMatch(linea -> linea.contains("\"tipo\":\"" + tipo + "\"")
+                    && linea.contains("\"usuario\":\"" + usuario + "\"")
+                    && (detalle == null || linea.contains(detalle)));
+        });
+    }
+
+    @Test
+    void rotarEmiteUnParNuevo() throws Exception {
+        Usuario usuario = usuario("rotar@auth.io");
+        String primero = refreshTokenService.emitir(usuario).getRefreshToken();
+
+        ResultActions respuesta = refrescar(primero)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.token").isNotEmpty());
+        String segundo = refreshTokenDe(respuesta);
+        assertNotEquals(primero, segundo);
+
+        String acceso = respuesta.andReturn().getResponse().getContentAsString()
+                .replaceAll(".*\"token\":\"([^\"]+)\".*", "$1");
+        mockMvc.perform(get("/api/clientes").header("Authorization", "Bearer " + acceso))
+                .andExpect(status().isOk());
+        refrescar(segundo).andExpect(status().isOk());
+    }
+
+    @Test
+    void reusoRevocaTodaLaFamilia() throws Exception {
+        Usuario usuario = usuario("reuso@auth.io");
+        String primero = refreshTokenService.emitir(usuario).getRefreshToken();
+        String segundo = refreshTokenDe(refrescar(primero).andExpect(status().isOk()));
+        long desde = finDelLog();
+
+        refrescar(primero).andExpect(status().isUnauthorized());
+        // La revocación se confirma aunque la petición falle: el token legítimo tampoco sirve ya.
+        refrescar(segundo).andExpect(status().isUnauthorized());
+        assertEquals(0, tokens(usuario, "revocado = false"));
+        esperarEvento(desde, "REFRESH_REUTILIZADO", "reuso@auth.io", null);
+        esperarEvento(desde, "REFRESH_FALLIDO", "reuso@auth.io", "revocado");
+    }
+
+    @Test
+    void expiradoNoSeMarcaUsado() throws Exception {
+        Usuario usuario = usuario("expirado@auth.io");
+        String token = refreshTokenService.emitir(usuario).getRefreshToken();
+        jdbcTemplate.update("update refresh_tokens set expira_at = ? where usuario_id = ?",
+                new Timestamp(System.currentTimeMillis() - 1000), usuario.getId());
+        long desde = finDelLog();
+
+        refrescar(token).andExpect(status().isUnauthorized());
+        assertEquals(0, tokens(usuario, "usado = true"));
+        assertEquals(0, tokens(usuario, "revocado = true"));
+        esperarEvento(desde, "REFRESH_FALLIDO", "expirado@auth.io", "expirado");
+    }
+
+    @Test
+    void logoutConAccessTokenExpiradoRevocaElRefreshToken() throws Exception {
+        Usuario usuario = usuario("logout@auth.io");
+        String refreshToken = refreshTokenService.emitir(usuario).getRefreshToken();
+        String expirado = jwtService.buildToken(new HashMap<>(), userDetailsService.loadUserByUsername(usuario.getEmail()), -1000);
+        long desde = finDelLog();
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer " + expirado)
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo(refreshToken)))
+                .andExpect(status().isNoContent());
+        esperarEvento(desde, "LOGOUT", "logout@auth.io", null);
+        refrescar(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutConAccessTokenInvalidoRevocaElRefreshToken() throws Exception {
+        Usuario usuario = usuario("invalido@auth.io");
+        String refreshToken = refreshTokenService.emitir(usuario).getRefreshToken();
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", "Bearer no-es-un-jwt")
+                        .contentType(MediaType.APPLICATION_JSON).content(cuerpo(refreshToken)))
+                .andExpect(status().isNoContent());
+        refrescar(refreshToken).andExpect(status().isUnauthorized());
+    }
+
+    @Test
+    void logoutRevocaElAccessToken() throws Exception {
+        Usuario usuario = usuario("acceso@auth.io");
+        String acceso = "Bearer " + jwtService.generateToken(userDetailsService.loadUserByUsername(usuario.getEmail()));
+        mockMvc.perform(get("/api/clientes").header("Authorization", acceso)).andExpect(status().isOk());
+
+        mockMvc.perform(post("/auth/logout").header("Authorization", acceso)).andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/clientes").header("Authorization", acceso)).andExpect(status().isForbidden());
+        mockMvc.perform(post("/auth/logout")).andExpect(status().isBadRequest());
+    }
+}
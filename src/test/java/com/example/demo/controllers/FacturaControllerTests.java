@@ -0,0 +1,137 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.services.AlmacenArchivoFacturas;
+import com.example.demo.services.FacturaService;
+import com.example.demo.services.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag fuertes y respuestas 304 del detalle de factura, borrado de facturas con copia archivada y acceso
+ * al archivado.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class FacturaControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private AlmacenArchivoFacturas almacenArchivo;
+
+    private String usuario;
+
+    @BeforeEach
+    void crearUsuario() {
+        usuario = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService)
+                .bearer("user@facturas.io", "ROLE_USER");
+    }
+
+    private static String factura(String descripcion, int cantidad) {
+        return "{\"descripcion\":\"" + descripcion + "\",\"clienteId\":2,"
+                + "\"items\":[{\"productoId\":3,\"cantidad\":" + cantidad + "}]}";
+    }
+
+    private Long crear() throws Exception {
+        String creada = mockMvc.perform(post("/api/facturas").header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content(factura("ETag", 1)))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.valueOf(creada.replaceAll("^\\{\"id\":(\\d+),.*", "$1"));
+    }
+
+    private String etag(Long id) throws Exception {
+        return mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void etagCoincidenteDevuelve304() throws Exception {
+        Long id = crear();
+        String etag = etag(id);
+
+        mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario)
+                        .header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+    }
+
+    @Test
+    void actualizarCambiaElEtag() throws Exception {
+        Long id = crear();
+        String anterior = etag(id);
+
+        mockMvc.perform(put("/api/facturas/" + id).header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content(factura("ETag actualizada", 3)))
+                .andExpect(status().isOk());
+
+        String nuevo = mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario)
+                        .header(HttpHeaders.IF_NONE_MATCH, anterior))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.descripcion").value("ETag actualizada"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertNotEquals(anterior, nuevo);
+
+        mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario)
+                        .header(HttpHeaders.IF_NONE_MATCH, nuevo))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    void borrarEnCalienteDescartaLaCopiaArchivada() throws Exception {
+        Long id = crear();
+        // Como tras un archivado interrumpido: la factura está viva y también en un segmento.
+        almacenArchivo.escribir(List.of(facturaService.findDetalle(id).orElseThrow()));
+
+        mockMvc.perform(delete("/api/facturas/" + id).header("Authorization", usuario))
+                .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void archivarSoloParaAdministradores() throws Exception {
+        mockMvc.perform(post("/api/archivo").header("Authorization", usuario))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/archivo").header("Authorization", usuario))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.services.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.everyItem;
+import static org.hamcrest.Matchers.is;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Recarga de tasas restringida a administradores y facturas de clientes sin región.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ImpuestoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String admin;
+    private String usuario;
+
+    @BeforeEach
+    void crearUsuarios() {
+        UsuariosDePrueba usuarios = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService);
+        admin = usuarios.bearer("admin@impuestos.io", "ROLE_ADMIN");
+        usuario = usuarios.bearer("user@impuestos.io", "ROLE_USER");
+    }
+
+    @Test
+    void recargarSoloParaAdministradores() throws Exception {
+        mockMvc.perform(post("/api/impuestos/recargar").header("Authorization", usuario))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/impuestos/recargar").header("Authorization", admin))
+                .andExpect(status().isNoContent());
+    }
+
+    @Test
+    void clienteSinRegionNoPagaImpuestos() throws Exception {
+        jdbcTemplate.update("insert into clientes (nombre, apellido, email, create_at, version) " +
+                "values ('Sin', 'Region', 'sin.region@example.com', current_date, 0)");
+        Long clienteId = jdbcTemplate.queryForObject(
+                "select id from clientes where email = 'sin.region@example.com'", Long.class);
+
+        String factura = "{\"descripcion\":\"Sin región\",\"clienteId\":" + clienteId
+                + ",\"items\":[{\"productoId\":1,\"cantidad\":2},{\"productoId\":4,\"cantidad\":1}]}";
+        mockMvc.perform(post("/api/facturas").header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content(factura))
+                .andExpect(status().isCreated())
+                .andExpect(jsonPath("$.impuestos").value(0.0))
+                .andExpect(jsonPath("$.items[*].tasaImpuesto", everyItem(is(0.0))));
+
+        mockMvc.perform(get("/api/clientes/" + clienteId + "/facturas").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].impuestos").value(0.0));
+        mockMvc.perform(get("/api/reportes/ventas-region").header("Authorization", usuario))
+                .andExpect(status().isOk());
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.services.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * ETag de la lista de productos: cada filtro tiene el suyo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ProductoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String usuario;
+
+    @BeforeEach
+    void crearUsuario() {
+        usuario = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService)
+                .bearer("user@productos.io", "ROLE_USER");
+    }
+
+    private String etag(String url) throws Exception {
+        return mockMvc.perform(get(url).header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void filtrosDistintosNoCompartenEtag() throws Exception {
+        String primera = etag("/api/productos?nombre=a");
+        assertNotEquals(primera, etag("/api/productos?nombre=b"));
+
+        mockMvc.perform(get("/api/productos?nombre=a").header("Authorization", usuario).header(HttpHeaders.IF_NONE_MATCH, primera))
+                .andExpect(status().isNotModified());
+        mockMvc.perform(get("/api/productos?nombre=b").header("Authorization", usuario).header(HttpHeaders.IF_NONE_MATCH, primera))
+                .andExpect(status().isOk());
+    }
+}
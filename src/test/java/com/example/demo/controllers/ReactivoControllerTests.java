@@ -0,0 +1,155 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.services.ArchivadoService;
+import com.example.demo.services.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * API reactiva sobre R2DBC contra la misma base H2 que la API bloqueante: paginación por {@code desde},
+ * detalle, 404 y facturas archivadas en el listado por cliente.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReactivoControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ArchivadoService archivadoService;
+
+    private String usuario;
+
+    @BeforeEach
+    void crearUsuario() {
+        usuario = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService)
+                .bearer("user@reactivo.io", "ROLE_USER");
+    }
+
+    // La respuesta se escribe de forma asíncrona; asyncDispatch espera a que el Flux o el Mono termine.
+    private ResultActions asincrono(String url) throws Exception {
+        MvcResult inicio = mockMvc.perform(get(url).header("Authorization", usuario)
+                        .accept(MediaType.APPLICATION_NDJSON, MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(inicio));
+    }
+
+    private List<Long> ids(String url) throws Exception {
+        String cuerpo = asincrono(url).andExpect(status().isOk()).andReturn().getResponse().getContentAsString();
+        return Arrays.stream(cuerpo.split("\n"))
+                .filter(linea -> !linea.isBlank())
+                .map(linea -> Long.valueOf(linea.replaceAll("^\\{\"id\":(\\d+),.*", "$1")))
+                .toList();
+    }
+
+    private Long crearFactura(Long clienteId, int cantidad) throws Exception {
+        String factura = "{\"descripcion\":\"Reactiva\",\"clienteId\":" + clienteId
+                + ",\"items\":[{\"productoId\":2,\"cantidad\":" + cantidad + "}]}";
+        String creada = mockMvc.perform(post("/api/facturas").header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content(factura))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.valueOf(creada.replaceAll("^\\{\"id\":(\\d+),.*", "$1"));
+    }
+
+    @Test
+    void clientesSePaginanPorId() throws Exception {
+        assertEquals(List.of(1L, 2L, 3L), ids("/api/reactive/clientes?limite=3"));
+        assertEquals(List.of(4L, 5L), ids("/api/reactive/clientes?desde=3&limite=2"));
+    }
+
+    @Test
+    void clienteYFacturaPorId() throws Exception {
+        asincrono("/api/reactive/clientes/3")
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.apellido").value("Torvalds"));
+        asincrono("/api/reactive/clientes/999999").andExpect(status().isNotFound());
+
+        Long id = crearFactura(3L, 2);
+        String bloqueante = mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        asincrono("/api/reactive/facturas/" + id)
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(id))
+                .andExpect(jsonPath("$.items.length()").value(1))
+                .andExpect(jsonPath("$.total").value(
+                        Double.valueOf(bloqueante.replaceAll(".*\"total\":([0-9.Ee-]+).*", "$1"))));
+        asincrono("/api/reactive/facturas/999999").andExpect(status().isNotFound());
+    }
+
+    @Test
+    void facturasSePaginanPorId() throws Exception {
+        crearFactura(4L, 1);
+        List<Long> todas = ids("/api/reactive/facturas?limite=100000");
+        assertTrue(todas.size() >= 3);
+        assertEquals(todas.stream().sorted().toList(), todas);
+        assertEquals(todas.subList(1, 3), ids("/api/reactive/facturas?desde=" + todas.get(0) + "&limite=2"));
+    }
+
+    @Test
+    void facturasPorClienteIncluyenLasArchivadas() throws Exception {
+        jdbcTemplate.update("insert into clientes (nombre, apellido, email, create_at, region_id, version) " +
+                "values ('Archivo', 'Reactivo', 'archivo.reactivo@example.com', current_date, 1, 0)");
+        Long clienteId = jdbcTemplate.queryForObject(
+                "select id from clientes where email = 'archivo.reactivo@example.com'", Long.class);
+        Long archivada = crearFactura(clienteId, 1);
+        Long activa = crearFactura(clienteId, 2);
+        jdbcTemplate.update("update facturas set create_at = '2000-01-01' where id = ?", archivada);
+        archivadoService.archivar();
+        assertEquals(0, jdbcTemplate.queryForObject("select count(*) from facturas where id = ?", Integer.class, archivada));
+
+        assertEquals(List.of(archivada, activa), ids("/api/reactive/clientes/" + clienteId + "/facturas"));
+        assertEquals(List.of(activa), ids("/api/reactive/clientes/" + clienteId + "/facturas?desde=" + archivada));
+        assertEquals(List.of(archivada), ids("/api/reactive/clientes/" + clienteId + "/facturas?limite=1"));
+
+        String bloqueante = mockMvc.perform(get("/api/clientes/" + clienteId + "/facturas").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String reactiva = asincrono("/api/reactive/clientes/" + clienteId + "/facturas")
+                .andReturn().getResponse().getContentAsString();
+        assertEquals(bloqueante.replace("},{", "}\n{").replaceAll("^\\[|]$", "").trim(), reactiva.trim());
+    }
+
+    @Test
+    void limiteFueraDeRangoDevuelve400() throws Exception {
+        mockMvc.perform(get("/api/reactive/facturas?limite=0").header("Authorization", usuario)
+                        .accept(MediaType.APPLICATION_NDJSON))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,105 @@
+package com.example.demo.controllers;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.services.JwtService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Reprecio por API: solo administradores, y un CSV con productos repetidos o inexistentes se rechaza con
+ * 400 sin crear el trabajo.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class ReprecioControllerTests {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String usuario;
+    private String administrador;
+
+    @BeforeEach
+    void crearUsuarios() {
+        UsuariosDePrueba usuarios = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService);
+        usuario = usuarios.bearer("user@reprecios.io", "ROLE_USER");
+        administrador = usuarios.bearer("admin@reprecios.io", "ROLE_ADMIN");
+    }
+
+    private List<Long> crearProductos(String categoria, int cantidad) {
+        for (int i = 0; i < cantidad; i++) {
+            jdbcTemplate.update("insert into productos (nombre, categoria, precio, create_at, version) " +
+                    "values (?, ?, 100, current_date, 0)", categoria + " " + i, categoria);
+        }
+        return jdbcTemplate.queryForList("select id from productos where categoria = ? order by id", Long.class, categoria);
+    }
+
+    private Integer trabajos() {
+        return jdbcTemplate.queryForObject("select count(*) from trabajos_reprecio", Integer.class);
+    }
+
+    private ResultActions subir(String bearer, String csv) throws Exception {
+        return mockMvc.perform(multipart("/api/reprecios/archivo")
+                .file(new MockMultipartFile("archivo", "precios.csv", "text/csv", csv.getBytes(StandardCharsets.UTF_8)))
+                .header("Authorization", bearer));
+    }
+
+    @Test
+    void soloAdministradoresPuedenRepreciar() throws Exception {
+        mockMvc.perform(post("/api/reprecios/porcentaje").header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content("{\"categoria\":\"NINGUNA\",\"porcentaje\":5}"))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/reprecios/1/reanudar").header("Authorization", usuario))
+                .andExpect(status().isForbidden());
+        subir(usuario, "1,10").andExpect(status().isForbidden());
+        mockMvc.perform(get("/api/reprecios").header("Authorization", usuario)).andExpect(status().isOk());
+    }
+
+    @Test
+    void archivoConProductoRepetidoODesconocidoDevuelve400() throws Exception {
+        List<Long> ids = crearProductos("REPRECIO_CSV", 2);
+        int antes = trabajos();
+
+        subir(administrador, "productoId,precio\n" + ids.get(0) + ",10\n" + ids.get(0) + ",20\n")
+                .andExpect(status().isBadRequest());
+        subir(administrador, ids.get(0) + ",10\n999999999,20\n").andExpect(status().isBadRequest());
+        assertEquals(antes, trabajos());
+
+        subir(administrador, ids.get(0) + ",10\n" + ids.get(1) + ",20\n").andExpect(status().isAccepted());
+        await().atMost(Duration.ofSeconds(20)).until(() -> "COMPLETADO".equals(jdbcTemplate.queryForObject(
+                "select estado from trabajos_reprecio order by id desc limit 1", String.class)));
+        assertEquals(List.of(10.0, 20.0), jdbcTemplate.queryForList(
+                "select precio from productos where categoria = 'REPRECIO_CSV' order by id", Double.class));
+    }
+}
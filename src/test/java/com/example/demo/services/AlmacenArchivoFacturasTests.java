@@ -0,0 +1,205 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.ItemFacturaDto;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Formato de los segmentos y reglas del almacén: nulos, búsqueda por cliente entre bloques, restos y
+ * recuperación de escrituras interrumpidas, copias duplicadas y visibilidad ligada a la transacción.
+ */
+class AlmacenArchivoFacturasTests {
+
+    @TempDir
+    Path directorio;
+
+    private static FacturaDetalleDto factura(long id, long clienteId, String descripcion) {
+        FacturaDetalleDto factura = new FacturaDetalleDto(id, descripcion, "obs", java.sql.Date.valueOf("2020-03-15"),
+                clienteId, "Nombre", "Apellido", 1L);
+        factura.getItems().add(new ItemFacturaDto(id * 10, 2, 3L, "Producto", "HOGAR", 9.5));
+        return factura;
+    }
+
+    private AlmacenArchivoFacturas almacen() throws Exception {
+        AlmacenArchivoFacturas almacen = new AlmacenArchivoFacturas(directorio.toString());
+        almacen.cargar();
+        return almacen;
+    }
+
+    private List<String> archivos() throws Exception {
+        try (Stream<Path> listado = Files.list(directorio)) {
+            return listado.map(archivo -> archivo.getFileName().toString()).sorted().toList();
+        }
+    }
+
+    // Devuelve un archivo del segmento al nombre temporal que tenía antes de renombrarse.
+    private void comoTemporal(String nombre) throws Exception {
+        Files.move(directorio.resolve(nombre), directorio.resolve(nombre + SegmentoArchivo.EXTENSION_TEMPORAL));
+    }
+
+    @Test
+    void segmentoConservaNulos() throws Exception {
+        FacturaDetalleDto conNulos = new FacturaDetalleDto(7L, null, null, null, 3L, null, null, null);
+        conNulos.getItems().add(new ItemFacturaDto(null, null, null, null, null, null));
+        FacturaDetalleDto completa = factura(8L, 3L, "Completa");
+
+        SegmentoArchivo.escribir(directorio.resolve("prueba"), List.of(completa, conNulos));
+        SegmentoArchivo segmento = SegmentoArchivo.abrir(directorio.resolve("prueba" + SegmentoArchivo.EXTENSION_INDICE));
+
+        FacturaDetalleDto leida = segmento.buscar(7L);
+        assertNull(leida.getDescripcion());
+        assertNull(leida.getObservacion());
+        assertNull(leida.getCreateAt());
+        assertNull(leida.getClienteNombre());
+        assertNull(leida.getRegionId());
+        ItemFacturaDto item = leida.getItems().get(0);
+        assertNull(item.getId());
+        assertNull(item.getCantidad());
+        assertNull(item.getProductoId());
+        assertNull(item.getProductoNombre());
+        assertNull(item.getPrecio());
+
+        leida = segmento.buscar(8L);
+        assertEquals("Completa", leida.getDescripcion());
+        assertEquals(LocalDate.of(2020, 3, 15), new java.sql.Date(leida.getCreateAt().getTime()).toLocalDate());
+        assertEquals(1L, leida.getRegionId());
+        assertEquals(80L, leida.getItems().get(0).getId());
+        assertEquals(2, leida.getItems().get(0).getCantidad());
+        assertEquals(9.5, leida.getItems().get(0).getPrecio());
+        assertEquals(List.of("prueba.idx", "prueba.seg"), archivos());
+    }
+
+    @Test
+    void buscaPorClienteEntreBloques() throws Exception {
+        List<FacturaDetalleDto> facturas = new ArrayList<>();
+        for (long id = 1; id <= 300; id++) {
+            facturas.add(factura(id, id % 3 == 0 ? 42L : id % 7, "F" + id));
+        }
+        AlmacenArchivoFacturas almacen = almacen();
+        almacen.escribir(facturas);
+
+        List<Long> esperadas = facturas.stream().filter(f -> f.getClienteId() == 42L).map(FacturaDetalleDto::getId).toList();
+        assertEquals(esperadas, almacen.buscarPorCliente(42L).stream().map(FacturaDetalleDto::getId).toList());
+        assertEquals("F299", almacen.buscar(299L).orElseThrow().getDescripcion());
+        assertTrue(almacen.buscarPorCliente(99L).isEmpty());
+    }
+
+    @Test
+    void cargarDescartaSegmentosSinIndiceYConservaTemporalesIncompletos() throws Exception {
+        almacen().escribir(List.of(factura(1L, 1L, "Completa")));
+        SegmentoArchivo.escribir(directorio.resolve("facturas-0000000000000000002-1"), List.of(factura(2L, 1L, "Sin índice")));
+        Files.delete(directorio.resolve("facturas-0000000000000000002-1" + SegmentoArchivo.EXTENSION_INDICE));
+        Files.writeString(directorio.resolve("facturas-0000000000000000003-2.seg.tmp"), "a medias");
+        // Índice temporal truncado: la escritura no llegó a sincronizarlo.
+        SegmentoArchivo.escribir(directorio.resolve("facturas-0000000000000000004-3"),
+                List.of(factura(4L, 1L, "Truncada")));
+        Path indice = directorio.resolve("facturas-0000000000000000004-3.idx");
+        byte[] bytes = Files.readAllBytes(indice);
+        Files.write(directorio.resolve("facturas-0000000000000000004-3.idx.tmp"),
+                Arrays.copyOf(bytes, bytes.length - 4));
+        Files.delete(indice);
+
+        AlmacenArchivoFacturas almacen = almacen();
+        assertEquals(1, almacen.getSegmentos());
+        assertTrue(almacen.buscar(1L).isPresent());
+        assertFalse(almacen.contiene(2L));
+        assertFalse(almacen.contiene(4L));
+        assertTrue(archivos().stream().noneMatch(nombre -> nombre.contains("-0000000000000000002-")));
+        assertTrue(archivos().containsAll(List.of("facturas-0000000000000000003-2.seg.tmp",
+                "facturas-0000000000000000004-3.idx.tmp", "facturas-0000000000000000004-3.seg")));
+    }
+
+    @Test
+    void cargarTerminaLasEscriturasInterrumpidasAntesDeRenombrar() throws Exception {
+        // Caída antes de los dos renombrados y caída entre el de los datos y el del índice.
+        SegmentoArchivo.escribir(directorio.resolve("facturas-0000000000000000001-1"),
+                List.of(factura(1L, 1L, "Sin renombrar")));
+        comoTemporal("facturas-0000000000000000001-1.seg");
+        comoTemporal("facturas-0000000000000000001-1.idx");
+        SegmentoArchivo.escribir(directorio.resolve("facturas-0000000000000000002-2"),
+                List.of(factura(2L, 1L, "Solo datos renombrados")));
+        comoTemporal("facturas-0000000000000000002-2.idx");
+
+        AlmacenArchivoFacturas almacen = almacen();
+        assertEquals(2, almacen.getSegmentos());
+        assertEquals("Sin renombrar", almacen.buscar(1L).orElseThrow().getDescripcion());
+        assertEquals("Solo datos renombrados", almacen.buscar(2L).orElseThrow().getDescripcion());
+        assertEquals(List.of("facturas-0000000000000000001-1.idx", "facturas-0000000000000000001-1.seg",
+                "facturas-0000000000000000002-2.idx", "facturas-0000000000000000002-2.seg"), archivos());
+    }
+
+    @Test
+    void ganaLaCopiaMasReciente() throws Exception {
+        AlmacenArchivoFacturas almacen = almacen();
+        // El segundo segmento empieza por un id menor: el orden de los nombres no es el de escritura.
+        almacen.escribir(List.of(factura(5L, 1L, "Antigua"), factura(6L, 1L, "Sola")));
+        almacen.escribir(List.of(factura(4L, 1L, "Otra"), factura(5L, 1L, "Reciente")));
+
+        for (AlmacenArchivoFacturas leido : List.of(almacen, almacen())) {
+            assertEquals("Reciente", leido.buscar(5L).orElseThrow().getDescripcion());
+            assertEquals(List.of("Otra", "Reciente", "Sola"),
+                    leido.buscarPorCliente(1L).stream().map(FacturaDetalleDto::getDescripcion).toList());
+        }
+    }
+
+    @Test
+    void eliminadaDejaDeLeerseTambienTrasRecargar() throws Exception {
+        AlmacenArchivoFacturas almacen = almacen();
+        almacen.escribir(List.of(factura(1L, 1L, "Borrada"), factura(2L, 1L, "Viva")));
+        long generacion = almacen.getGeneracion();
+
+        almacen.eliminar(1L);
+
+        assertTrue(almacen.getGeneracion() > generacion);
+        for (AlmacenArchivoFacturas leido : List.of(almacen, almacen())) {
+            assertFalse(leido.contiene(1L));
+            assertTrue(leido.buscar(1L).isEmpty());
+            assertEquals(List.of(2L), leido.buscarPorCliente(1L).stream().map(FacturaDetalleDto::getId).toList());
+        }
+    }
+
+    @Test
+    void segmentoSoloEsVisibleAlConfirmar() throws Exception {
+        AlmacenArchivoFacturas almacen = almacen();
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            almacen.escribir(List.of(factura(1L, 1L, "Confirmada")));
+            assertFalse(almacen.contiene(1L));
+            List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCompletion(sincronizaciones, TransactionSynchronization.STATUS_COMMITTED);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertTrue(almacen.contiene(1L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            almacen.escribir(List.of(factura(2L, 1L, "Revertida")));
+            List<TransactionSynchronization> sincronizaciones = TransactionSynchronizationManager.getSynchronizations();
+            TransactionSynchronizationUtils.invokeAfterCompletion(sincronizaciones, TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        assertFalse(almacen.contiene(2L));
+        assertEquals(1, almacen().getSegmentos());
+        assertEquals(2, archivos().size());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Varios productores compiten contra un consumidor: todo lo aceptado debe salir exactamente una vez y
+ * en el orden en que lo encoló cada productor.
+ */
+class AnilloMpscTests {
+
+    @Test
+    void rechazaCuandoEstaLlenoYReutilizaLosHuecos() {
+        AnilloMpsc<Integer> anillo = new AnilloMpsc<>(3);
+        assertEquals(4, anillo.getCapacidad());
+        for (int i = 0; i < 4; i++) {
+            assertTrue(anillo.ofrecer(i));
+        }
+        assertFalse(anillo.ofrecer(4));
+        assertEquals(4, anillo.getPendientes());
+
+        List<Integer> salida = new ArrayList<>();
+        assertEquals(2, anillo.drenar(salida::add, 2));
+        assertTrue(anillo.ofrecer(4));
+        assertTrue(anillo.ofrecer(5));
+        assertEquals(4, anillo.drenar(salida::add, 10));
+        assertEquals(List.of(0, 1, 2, 3, 4, 5), salida);
+        assertEquals(0, anillo.getPendientes());
+    }
+
+    @Test
+    void entregaCadaElementoAceptadoUnaVezYEnOrdenPorProductor() throws InterruptedException {
+        int productores = 8;
+        int porProductor = 200_000;
+        AnilloMpsc<long[]> anillo = new AnilloMpsc<>(1024);
+        AtomicLong aceptados = new AtomicLong();
+        CountDownLatch inicio = new CountDownLatch(1);
+        CountDownLatch fin = new CountDownLatch(productores);
+
+        for (int p = 0; p < productores; p++) {
+            int productor = p;
+            Thread hilo = new Thread(() -> {
+                try {
+                    inicio.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                for (int i = 0; i < porProductor; i++) {
+                    if (anillo.ofrecer(new long[]{productor, i})) {
+                        aceptados.incrementAndGet();
+                    }
+                }
+                fin.countDown();
+            });
+            hilo.start();
+        }
+
+        long[] ultimo = new long[productores];
+        Arrays.fill(ultimo, -1);
+        long[] recibidos = {0};
+        inicio.countDown();
+        while (fin.getCount() > 0 || anillo.getPendientes() > 0) {
+            anillo.drenar(elemento -> {
+                int productor = (int) elemento[0];
+                assertTrue(elemento[1] > ultimo[productor], "Orden alterado en el productor " + productor);
+                ultimo[productor] = elemento[1];
+                recibidos[0]++;
+            }, 256);
+        }
+
+        assertEquals(aceptados.get(), recibidos[0]);
+        assertTrue(recibidos[0] > 0);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.demo.services;
+
+import com.example.demo.models.TipoEventoAuditoria;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.stream.Stream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Escritor del log de auditoría contra un directorio temporal: rotación con límite de archivos y
+ * recuperación cuando una rotación falla.
+ */
+class AuditoriaServiceTests {
+
+    @TempDir
+    Path directorio;
+
+    private AuditoriaService servicio;
+
+    private Path archivo() {
+        return directorio.resolve("auditoria.log");
+    }
+
+    // Tamaño máximo de 1 byte: cada lote rota el archivo.
+    private AuditoriaService iniciar(int maxArchivos) throws Exception {
+        servicio = new AuditoriaService(JsonMapper.builder().findAndAddModules().build(), archivo().toString(),
+                1024, 512, 1, maxArchivos, 5);
+        servicio.iniciar();
+        return servicio;
+    }
+
+    private long archivosRotados() throws Exception {
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            return archivos.filter(ruta -> ruta.getFileName().toString().startsWith("auditoria.log.")).count();
+        }
+    }
+
+    @AfterEach
+    void detener() throws Exception {
+        servicio.detener();
+    }
+
+    @Test
+    void rotaYConservaLosMasRecientes() throws Exception {
+        iniciar(2);
+        for (int i = 0; i < 5; i++) {
+            long rotaciones = servicio.metricas().getRotaciones();
+            servicio.registrar(TipoEventoAuditoria.LOGIN, "rota" + i + "@auditoria.io", null);
+            await().atMost(Duration.ofSeconds(10)).until(() -> servicio.metricas().getRotaciones() > rotaciones);
+            // El sufijo tiene milisegundos: dos rotaciones en el mismo milisegundo chocarían.
+            Thread.sleep(2);
+        }
+        assertEquals(2, archivosRotados());
+        assertEquals(5, servicio.metricas().getEscritos());
+    }
+
+    @Test
+    void sigueEscribiendoTrasUnaRotacionFallida() throws Exception {
+        iniciar(10);
+        // Sin el archivo, mover para rotar falla después de cerrar la salida.
+        Files.delete(archivo());
+        servicio.registrar(TipoEventoAuditoria.LOGIN, "antes@auditoria.io", null);
+        await().atMost(Duration.ofSeconds(10)).until(() -> servicio.metricas().getEscritos() == 1);
+
+        servicio.registrar(TipoEventoAuditoria.LOGOUT, "despues@auditoria.io", null);
+        await().atMost(Duration.ofSeconds(10)).until(() -> servicio.metricas().getRotaciones() == 1);
+
+        assertEquals(2, servicio.metricas().getEscritos());
+        assertEquals(0, servicio.metricas().getPerdidos());
+        try (Stream<Path> archivos = Files.list(directorio)) {
+            Path rotado = archivos.filter(ruta -> ruta.getFileName().toString().startsWith("auditoria.log."))
+                    .findFirst().orElseThrow();
+            assertTrue(Files.readString(rotado).contains("despues@auditoria.io"));
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.demo.services;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * El filtro nunca debe dar falsos negativos y, dentro de su capacidad, debe quedarse cerca de la tasa
+ * de falsos positivos pedida.
+ */
+class FiltroBloomTests {
+
+    @Test
+    void sinFalsosNegativos() {
+        for (int capacidad : new int[]{1, 10, 1_000, 50_000}) {
+            FiltroBloom filtro = new FiltroBloom(capacidad, 0.01);
+            List<String> agregados = new ArrayList<>();
+            // Se llena hasta el doble de la capacidad: aunque suban los falsos positivos, nada agregado puede faltar.
+            for (int i = 0; i < capacidad * 2; i++) {
+                String jti = UUID.randomUUID().toString();
+                filtro.agregar(jti);
+                agregados.add(jti);
+            }
+            for (String jti : agregados) {
+                assertTrue(filtro.quizaContiene(jti), "capacidad " + capacidad + ", " + jti);
+            }
+        }
+    }
+
+    @Test
+    void tasaDeFalsosPositivosCercaDeLaPedida() {
+        FiltroBloom filtro = new FiltroBloom(10_000, 0.01);
+        for (int i = 0; i < 10_000; i++) {
+            filtro.agregar("revocado-" + i);
+        }
+        int falsosPositivos = 0;
+        int consultas = 100_000;
+        for (int i = 0; i < consultas; i++) {
+            if (filtro.quizaContiene(UUID.randomUUID().toString())) {
+                falsosPositivos++;
+            }
+        }
+        double tasa = (double) falsosPositivos / consultas;
+        assertTrue(tasa < 0.02, "tasa de falsos positivos " + tasa);
+    }
+}
@@ -0,0 +1,64 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaRequestDto;
+import com.example.demo.dtos.ItemFacturaRequestDto;
+import com.example.demo.models.EstadoOutbox;
+import com.example.demo.models.OutboxEvento;
+import com.example.demo.repositories.OutboxEventoRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Con el sink por defecto ({@code manejadores}) los eventos de facturas llegan al manejador incluido y
+ * se dan por procesados.
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "facturacion.outbox.sink=manejadores",
+        // Contexto propio: con la base compartida, ddl-auto=create borraría los datos del contexto de las demás pruebas
+        "spring.datasource.url=jdbc:h2:mem:outbox-manejadores;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.reactivo.url=r2dbc:h2:mem:///outbox-manejadores;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1"
+})
+class ManejadoresOutboxSinkTests {
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @SpyBean
+    private RegistroManejadorOutbox manejador;
+
+    private EstadoOutbox estado(Long facturaId) {
+        return StreamSupport.stream(outboxEventoRepository.findAll().spliterator(), false)
+                .filter(evento -> evento.getAgregadoId().equals(facturaId))
+                .map(OutboxEvento::getEstado)
+                .findFirst().orElseThrow();
+    }
+
+    @Test
+    void elEventoLlegaAlManejador() throws Exception {
+        FacturaDetalleDto creada = facturaService.create(new FacturaRequestDto("Manejadores", null, 1L,
+                List.of(new ItemFacturaRequestDto(1L, 1))));
+
+        verify(manejador, timeout(10_000)).manejar(argThat(evento -> evento.getAgregadoId().equals(creada.getId())
+                && FacturaService.FACTURA_CREADA.equals(evento.getTipoEvento())));
+        await().atMost(Duration.ofSeconds(10)).until(() -> estado(creada.getId()) == EstadoOutbox.PROCESADO);
+    }
+}
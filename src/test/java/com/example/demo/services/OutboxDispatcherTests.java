@@ -0,0 +1,89 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.FacturaDetalleDto;
+import com.example.demo.dtos.FacturaRequestDto;
+import com.example.demo.dtos.ItemFacturaRequestDto;
+import com.example.demo.models.EstadoOutbox;
+import com.example.demo.models.OutboxEvento;
+import com.example.demo.repositories.OutboxEventoRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Duration;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.StreamSupport;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Eventos de facturas entregados por el despachador al {@link MemoriaOutboxSink} del perfil de pruebas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+class OutboxDispatcherTests {
+
+    @Autowired
+    private FacturaService facturaService;
+
+    @Autowired
+    private MemoriaOutboxSink sink;
+
+    @Autowired
+    private OutboxEventoRepository outboxEventoRepository;
+
+    @AfterEach
+    void restaurarSink() {
+        sink.setCaido(false);
+    }
+
+    private static FacturaRequestDto factura(String descripcion, int cantidad) {
+        return new FacturaRequestDto(descripcion, null, 1L, List.of(new ItemFacturaRequestDto(1L, cantidad)));
+    }
+
+    private List<String> publicados(Long facturaId) {
+        return sink.getPublicados().stream()
+                .filter(evento -> evento.getAgregadoId().equals(facturaId))
+                .map(OutboxEvento::getTipoEvento)
+                .toList();
+    }
+
+    private List<OutboxEvento> eventos(Long facturaId) {
+        return StreamSupport.stream(outboxEventoRepository.findAll().spliterator(), false)
+                .filter(evento -> evento.getAgregadoId().equals(facturaId))
+                .toList();
+    }
+
+    @Test
+    void entregaLosEventosDeCrearYActualizar() {
+        FacturaDetalleDto creada = facturaService.create(factura("Outbox", 1));
+        facturaService.update(creada.getId(), factura("Outbox actualizada", 2));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> publicados(creada.getId()).size() == 2);
+        assertEquals(List.of(FacturaService.FACTURA_CREADA, FacturaService.FACTURA_ACTUALIZADA),
+                publicados(creada.getId()));
+        assertTrue(eventos(creada.getId()).stream().allMatch(evento -> evento.getEstado() == EstadoOutbox.PROCESADO));
+    }
+
+    @Test
+    void unFalloEsperaAntesDeReintentar() throws InterruptedException {
+        sink.setCaido(true);
+        FacturaDetalleDto creada = facturaService.create(factura("Outbox caído", 1));
+
+        await().atMost(Duration.ofSeconds(10)).until(() -> eventos(creada.getId()).get(0).getIntentos() > 0);
+        // Varios sondeos más: el evento sigue esperando en lugar de agotar los reintentos.
+        Thread.sleep(1000);
+        OutboxEvento evento = eventos(creada.getId()).get(0);
+        assertEquals(1, evento.getIntentos());
+        assertEquals(EstadoOutbox.PENDIENTE, evento.getEstado());
+        assertTrue(evento.getSiguienteIntentoAt().after(new Date()));
+        assertTrue(publicados(creada.getId()).isEmpty());
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.ReprecioPorcentajeDto;
+import com.example.demo.models.EstadoReprecio;
+import com.example.demo.responses.TrabajoReprecioResponse;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Medición, no prueba: filas por segundo de un reprecio del catálogo completo con 1, 2, 4 y 8
+ * trabajadores. Solo se ejecuta a petición:
+ * <pre>
+ * mvn test -Dtest=ReprecioEscaladoTests -Dreprecio.escalado=true [-Dreprecio.escalado.productos=200000]
+ * </pre>
+ *
+ * <p>Usa su propia base H2 en memoria, así que mide el coste de CPU, transacciones y bloqueos del
+ * trabajo, no la E/S de MySQL. Cada trabajo aplica un 1 % a todos los productos en lotes de 1000.</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+@EnabledIfSystemProperty(named = "reprecio.escalado", matches = "true")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:reprecio-escalado;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.reactivo.url=r2dbc:h2:mem:///reprecio-escalado;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "spring.datasource.hikari.maximum-pool-size=16"
+})
+class ReprecioEscaladoTests {
+
+    private static final int[] TRABAJADORES = {1, 2, 4, 8};
+
+    @Autowired
+    private ReprecioService reprecioService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private void crearProductos(int cantidad) {
+        List<Object[]> lote = new ArrayList<>();
+        for (int i = 0; i < cantidad; i++) {
+            lote.add(new Object[]{"Escalado " + i, i % 2 == 0 ? "ESCALADO_A" : "ESCALADO_B"});
+            if (lote.size() == 5000 || i == cantidad - 1) {
+                jdbcTemplate.batchUpdate("insert into productos (nombre, categoria, precio, create_at, version) " +
+                        "values (?, ?, 100, current_date, 0)", lote);
+                lote.clear();
+            }
+        }
+    }
+
+    private TrabajoReprecioResponse repreciar(int trabajadores) {
+        Long id = reprecioService.iniciarPorcentaje(new ReprecioPorcentajeDto(null, 1.0, trabajadores, 1000)).getId();
+        await().atMost(Duration.ofMinutes(10)).pollInterval(Duration.ofMillis(200))
+                .until(() -> reprecioService.findById(id).orElseThrow().getEstado() != EstadoReprecio.EN_CURSO);
+        return reprecioService.findById(id).orElseThrow();
+    }
+
+    @Test
+    void filasPorSegundoSegunTrabajadores() {
+        crearProductos(Integer.getInteger("reprecio.escalado.productos", 200_000));
+        // Calentamiento: JIT y planes de consulta, fuera de la medición.
+        repreciar(TRABAJADORES[TRABAJADORES.length - 1]);
+
+        double base = 0;
+        System.out.printf("%n%12s %12s %10s %12s %10s%n", "trabajadores", "filas", "ms", "filas/s", "escalado");
+        for (int trabajadores : TRABAJADORES) {
+            TrabajoReprecioResponse trabajo = repreciar(trabajadores);
+            assertEquals(EstadoReprecio.COMPLETADO, trabajo.getEstado());
+            if (base == 0) {
+                base = trabajo.getFilasPorSegundo();
+            }
+            System.out.printf("%12d %12d %10d %12.0f %9.2fx%n", trabajadores, trabajo.getProcesados(),
+                    trabajo.getMilisegundos(), trabajo.getFilasPorSegundo(), trabajo.getFilasPorSegundo() / base);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.demo.services;
+
+import com.example.demo.dtos.ReprecioPorcentajeDto;
+import com.example.demo.models.EstadoReprecio;
+import com.example.demo.repositories.ParticionReprecioRepository;
+import com.example.demo.repositories.PrecioReprecioRepository;
+import com.example.demo.repositories.ProductoRepository;
+import com.example.demo.repositories.TrabajoReprecioRepository;
+import com.example.demo.responses.TrabajoReprecioResponse;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Trabajos de reprecio con fallos provocados en el UPDATE de un lote: commit por lote, reanudación desde
+ * el último punto de control tras un fallo o una parada, y rechazo de una segunda ejecución simultánea.
+ *
+ * <p>Cada prueba reprecia una categoría propia de 20 productos a 100 con un 10 %, un trabajador y lotes
+ * de 3; los productos 0-9 caen en las dos primeras particiones y el fallo se provoca a partir del 10.
+ * Aplicar dos veces un lote dejaría el precio en 121.</p>
+ */
+@SpringBootTest
+@ActiveProfiles("test")
+class ReprecioServiceTests {
+
+    private static final int PRODUCTOS = 20;
+
+    @Autowired
+    private ProductoRepository productoRepository;
+
+    @Autowired
+    private TrabajoReprecioRepository trabajoReprecioRepository;
+
+    @Autowired
+    private ParticionReprecioRepository particionReprecioRepository;
+
+    @Autowired
+    private PrecioReprecioRepository precioReprecioRepository;
+
+    @Autowired
+    private ShardService shardService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private List<Long> crearProductos(String categoria) {
+        for (int i = 0; i < PRODUCTOS; i++) {
+            jdbcTemplate.update("insert into productos (nombre, categoria, precio, create_at, version) " +
+                    "values (?, ?, 100, current_date, 0)", categoria + " " + i, categoria);
+        }
+        return jdbcTemplate.queryForList("select id from productos where categoria = ? order by id", Long.class, categoria);
+    }
+
+    private List<Double> precios(String categoria) {
+        return jdbcTemplate.queryForList("select precio from productos where categoria = ? order by id", Double.class,
+                categoria);
+    }
+
+    private static List<Double> esperados(int repreciados) {
+        return IntStream.range(0, PRODUCTOS).mapToObj(i -> i < repreciados ? 110.0 : 100.0).toList();
+    }
+
+    private static ReprecioPorcentajeDto diezPorCiento(String categoria) {
+        return new ReprecioPorcentajeDto(categoria, 10.0, 1, 3);
+    }
+
+    /**
+     * Otra instancia del servicio sobre los beans del contexto, que se puede detener sin afectar a este.
+     * Antes de cada UPDATE por porcentaje llama a {@code antesDeLote} con el id final del lote.
+     */
+    private ReprecioService instancia(Consumer<Long> antesDeLote) {
+        ProductoRepository repositorio = (ProductoRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{ProductoRepository.class}, (proxy, metodo, argumentos) -> {
+                    if (metodo.getName().equals("aplicarFactor")) {
+                        antesDeLote.accept((Long) argumentos[3]);
+                    }
+                    try {
+                        return metodo.invoke(productoRepository, argumentos);
+                    } catch (InvocationTargetException e) {
+                        throw e.getCause();
+                    }
+                });
+        return new ReprecioService(trabajoReprecioRepository, particionReprecioRepository, precioReprecioRepository,
+                repositorio, shardService, jdbcTemplate, transactionManager);
+    }
+
+    private TrabajoReprecioResponse esperarEstado(ReprecioService servicio, Long id, EstadoReprecio estado) {
+        await().atMost(Duration.ofSeconds(20))
+                .until(() -> servicio.findById(id).orElseThrow().getEstado() == estado);
+        return servicio.findById(id).orElseThrow();
+    }
+
+    @Test
+    void unFalloConservaLosLotesConfirmadosYReanudarNoLosRepite() {
+        List<Long> ids = crearProductos("REPRECIO_FALLO");
+        Long limite = ids.get(9);
+        ReprecioService servicio = instancia(hasta -> {
+            if (hasta > limite) {
+                throw new IllegalStateException("Fallo provocado");
+            }
+        });
+
+        Long id = servicio.iniciarPorcentaje(diezPorCiento("REPRECIO_FALLO")).getId();
+        TrabajoReprecioResponse fallido = esperarEstado(servicio, id, EstadoReprecio.FALLIDO);
+
+        // Cada lote se confirmó por separado: los diez primeros quedan repreciados aunque el trabajo falle.
+        assertEquals(10L, fallido.getProcesados());
+        assertEquals(esperados(10), precios("REPRECIO_FALLO"));
+        assertTrue(fallido.getError().contains("Fallo provocado"));
+
+        ReprecioService sinFallos = instancia(hasta -> {
+        });
+        try {
+            sinFallos.reanudar(id);
+            TrabajoReprecioResponse completado = esperarEstado(sinFallos, id, EstadoReprecio.COMPLETADO);
+            assertEquals(20L, completado.getProcesados());
+            assertEquals(esperados(PRODUCTOS), precios("REPRECIO_FALLO"));
+        } finally {
+            servicio.detener();
+            sinFallos.detener();
+        }
+    }
+
+    @Test
+    void unaParadaDejaElTrabajoEnCursoYSeReanudaAlArrancar() throws Exception {
+        List<Long> ids = crearProductos("REPRECIO_PARADA");
+        Long limite = ids.get(9);
+        CountDownLatch bloqueado = new CountDownLatch(1);
+        CountDownLatch liberado = new CountDownLatch(1);
+        AtomicBoolean interrumpido = new AtomicBoolean();
+        ReprecioService servicio = instancia(hasta -> {
+            if (hasta > limite) {
+                bloqueado.countDown();
+                try {
+                    new CountDownLatch(1).await();
+                } catch (InterruptedException e) {
+                    interrumpido.set(true);
+                    throw new IllegalStateException("Lote interrumpido");
+                } finally {
+                    liberado.countDown();
+                }
+            }
+        });
+        Long id = servicio.iniciarPorcentaje(diezPorCiento("REPRECIO_PARADA")).getId();
+        assertTrue(bloqueado.await(20, TimeUnit.SECONDS));
+
+        // Mientras se ejecuta, una segunda ejecución repetiría lotes: se rechaza.
+        assertThrows(IllegalArgumentException.class, () -> servicio.reanudar(id));
+
+        servicio.detener();
+        assertTrue(liberado.await(20, TimeUnit.SECONDS));
+        assertTrue(interrumpido.get());
+        // La parada no cierra el trabajo: sigue EN_CURSO con los lotes confirmados hasta entonces.
+        TrabajoReprecioResponse parado = servicio.findById(id).orElseThrow();
+        assertEquals(EstadoReprecio.EN_CURSO, parado.getEstado());
+        assertEquals(10L, parado.getProcesados());
+        assertEquals(esperados(10), precios("REPRECIO_PARADA"));
+
+        ReprecioService arranque = instancia(hasta -> {
+        });
+        try {
+            arranque.reanudarInterrumpidos();
+            TrabajoReprecioResponse completado = esperarEstado(arranque, id, EstadoReprecio.COMPLETADO);
+            assertEquals(20L, completado.getProcesados());
+            assertEquals(esperados(PRODUCTOS), precios("REPRECIO_PARADA"));
+        } finally {
+            arranque.detener();
+        }
+    }
+}
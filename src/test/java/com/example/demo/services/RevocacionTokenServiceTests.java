@@ -0,0 +1,151 @@
+package com.example.demo.services;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Revocación de tokens contra un archivo temporal: reproducción y compactación del log al arrancar,
+ * líneas corruptas, purga al expirar, ausencia de falsos positivos con el filtro lleno y tokens que
+ * siguen revocados tras reiniciar.
+ */
+class RevocacionTokenServiceTests {
+
+    @TempDir
+    Path directorio;
+
+    private Path archivo() {
+        return directorio.resolve("tokens-revocados.log");
+    }
+
+    private RevocacionTokenService servicio(int capacidad) throws IOException {
+        RevocacionTokenService servicio = new RevocacionTokenService(archivo().toString(), capacidad);
+        servicio.cargar();
+        return servicio;
+    }
+
+    private static Date dentroDe(long ms) {
+        return new Date(System.currentTimeMillis() + ms);
+    }
+
+    @Test
+    void revocaHastaLaExpiracion() throws IOException {
+        RevocacionTokenService servicio = servicio(16);
+        servicio.revocarToken("a", dentroDe(60_000));
+        servicio.revocarToken("expirado", dentroDe(-1));
+
+        assertTrue(servicio.estaRevocado("a"));
+        assertFalse(servicio.estaRevocado("b"));
+        assertFalse(servicio.estaRevocado("expirado"));
+        assertFalse(servicio.estaRevocado(null));
+        servicio.cerrar();
+    }
+
+    @Test
+    void reproduceElArchivoAlReiniciar() throws IOException {
+        RevocacionTokenService servicio = servicio(4);
+        List<String> revocados = new ArrayList<>();
+        // Más que la capacidad, para pasar también por la reconstrucción del filtro.
+        for (int i = 0; i < 20; i++) {
+            String jti = UUID.randomUUID().toString();
+            servicio.revocarToken(jti, dentroDe(60_000));
+            revocados.add(jti);
+        }
+        servicio.revocarToken(revocados.get(0), dentroDe(60_000));
+        servicio.cerrar();
+
+        RevocacionTokenService reiniciado = servicio(4);
+        for (String jti : revocados) {
+            assertTrue(reiniciado.estaRevocado(jti), jti);
+        }
+        assertFalse(reiniciado.estaRevocado("otro"));
+        assertEquals(20, Files.readAllLines(archivo(), StandardCharsets.UTF_8).size());
+        reiniciado.cerrar();
+    }
+
+    @Test
+    void compactaAlCargarDescartandoExpiradosYLineasInvalidas() throws IOException {
+        long futuro = System.currentTimeMillis() + 60_000;
+        long pasado = System.currentTimeMillis() - 1;
+        Files.write(archivo(), List.of(
+                "T\tvigente\t" + futuro,
+                "T\texpirado\t" + pasado,
+                "U\tusuario@facturas.io\t" + futuro,
+                "linea rota",
+                "T\tcorrupta\tno-es-un-numero",
+                "T\tvigente\t" + futuro), StandardCharsets.UTF_8);
+
+        RevocacionTokenService servicio = servicio(16);
+        assertTrue(servicio.estaRevocado("vigente"));
+        assertFalse(servicio.estaRevocado("expirado"));
+        assertEquals(List.of("T\tvigente\t" + futuro), Files.readAllLines(archivo(), StandardCharsets.UTF_8));
+        assertFalse(Files.exists(directorio.resolve("tokens-revocados.log.tmp")));
+
+        // Lo revocado después de compactar se sigue anexando al archivo nuevo.
+        servicio.revocarToken("nuevo", dentroDe(60_000));
+        assertEquals(2, Files.readAllLines(archivo(), StandardCharsets.UTF_8).size());
+        servicio.cerrar();
+    }
+
+    @Test
+    void purgaLoExpiradoYCompacta() throws Exception {
+        RevocacionTokenService servicio = servicio(16);
+        servicio.revocarToken("corto", dentroDe(200));
+        servicio.revocarToken("largo", dentroDe(60_000));
+        assertTrue(servicio.estaRevocado("corto"));
+
+        Thread.sleep(300);
+        servicio.purgar();
+
+        assertFalse(servicio.estaRevocado("corto"));
+        assertTrue(servicio.estaRevocado("largo"));
+        List<String> lineas = Files.readAllLines(archivo(), StandardCharsets.UTF_8);
+        assertEquals(1, lineas.size());
+        assertTrue(lineas.get(0).startsWith("T\tlargo\t"));
+        servicio.cerrar();
+    }
+
+    // El tiempo por consulta se mide con scripts/MedirRevocacion.java, fuera de las pruebas.
+    @Test
+    void filtroLlenoNoDaPositivosParaTokensNoRevocados() throws IOException {
+        int capacidad = 100_000;
+        RevocacionTokenService servicio = servicio(capacidad);
+        for (int i = 0; i < capacidad; i++) {
+            servicio.revocarToken(UUID.randomUUID().toString(), dentroDe(60_000));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(servicio.estaRevocado(UUID.randomUUID().toString()));
+        }
+        servicio.cerrar();
+    }
+
+    @Test
+    void unTokenRevocadoSigueRevocadoTrasReiniciarConLaMismaClave() throws IOException {
+        String clave = "C4aT+2vCGrx2l2Te2+xBPAEUW8OsbVt8QkWyrJPECVA=";
+        String token = new JwtService(clave).generateToken(User.withUsername("reinicio@facturas.io")
+                .password("x").build());
+        RevocacionTokenService servicio = servicio(16);
+        Claims claims = new JwtService(clave).extractAllClaims(token);
+        servicio.revocarToken(claims.getId(), claims.getExpiration());
+        servicio.cerrar();
+
+        // Tras el reinicio, otra instancia con la clave configurada valida el token y lo encuentra revocado.
+        RevocacionTokenService reiniciado = servicio(16);
+        assertTrue(reiniciado.estaRevocado(new JwtService(clave).extractAllClaims(token).getId()));
+        reiniciado.cerrar();
+    }
+}
@@ -0,0 +1,293 @@
+package com.example.demo.services;
+
+import com.example.demo.UsuariosDePrueba;
+import com.example.demo.responses.MovimientoRegionResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Sharding sobre tres bases H2 en memoria: el principal y dos shards a los que se reubican las regiones
+ * al arrancar (Europa a {@code europa}; Sudamérica y Norteamérica a {@code america}). Usa bases propias
+ * para no compartir datos con el contexto sin sharding del resto de pruebas.
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@TestPropertySource(properties = {
+        "spring.datasource.url=jdbc:h2:mem:shards-principal;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.reactivo.url=r2dbc:h2:mem:///shards-principal;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.sharding.habilitado=true",
+        "facturacion.sharding.shards.europa.url=jdbc:h2:mem:shards-europa;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.sharding.shards.europa.url-reactiva=r2dbc:h2:mem:///shards-europa;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.sharding.shards.europa.username=sa",
+        "facturacion.sharding.shards.america.url=jdbc:h2:mem:shards-america;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.sharding.shards.america.url-reactiva=r2dbc:h2:mem:///shards-america;MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1",
+        "facturacion.sharding.shards.america.username=sa",
+        "facturacion.sharding.regiones.4=europa",
+        "facturacion.sharding.regiones.1=america",
+        "facturacion.sharding.regiones.3=america",
+        "facturacion.archivo.directorio=target/test-data/shards/archivo/${random.uuid}",
+        "facturacion.auditoria.archivo=target/test-data/shards/auditoria/auditoria.log",
+        "facturacion.revocacion.archivo=target/test-data/shards/tokens-revocados.log"
+})
+class ShardServiceTests {
+
+    private static final int CLIENTES_INICIALES = 12;
+
+    private static final String VENTAS_POR_CLIENTE =
+            "select c.id, sum(i.cantidad * p.precio) from facturas f join clientes c on c.id = f.cliente_id " +
+            "join facturas_items i on i.factura_id = f.id join productos p on p.id = i.producto_id group by c.id";
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ShardService shardService;
+
+    @Autowired
+    private MovimientoRegionService movimientoRegionService;
+
+    @Autowired
+    private JwtService jwtService;
+
+    @Autowired
+    private UserDetailsService userDetailsService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String usuario;
+
+    @BeforeEach
+    void crearUsuario() {
+        usuario = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService)
+                .bearer("user@shards.io", "ROLE_USER");
+    }
+
+    private JdbcTemplate jdbc(String shard) {
+        return new JdbcTemplate(shardService.dataSource(shard));
+    }
+
+    private List<String> shardsConFactura(Long facturaId) {
+        List<String> shards = new ArrayList<>();
+        for (String shard : shardService.getShards()) {
+            if (jdbc(shard).queryForObject("select count(*) from facturas where id = ?", Integer.class, facturaId) > 0) {
+                shards.add(shard);
+            }
+        }
+        return shards;
+    }
+
+    private Long crearFactura(long clienteId, int cantidad) throws Exception {
+        String factura = "{\"descripcion\":\"Shard\",\"clienteId\":" + clienteId
+                + ",\"items\":[{\"productoId\":1,\"cantidad\":" + cantidad + "}]}";
+        String creada = mockMvc.perform(post("/api/facturas").header("Authorization", usuario)
+                        .contentType(MediaType.APPLICATION_JSON).content(factura))
+                .andExpect(status().isCreated())
+                .andReturn().getResponse().getContentAsString();
+        return Long.valueOf(creada.replaceAll("^\\{\"id\":(\\d+),.*", "$1"));
+    }
+
+    @Test
+    void lasRegionesSeReubicanAlArrancarConservandoLosIds() {
+        assertEquals("europa", shardService.shardDeRegion(4L));
+        assertEquals("america", shardService.shardDeRegion(1L));
+        assertEquals("america", shardService.shardDeRegion(3L));
+        assertEquals("principal", shardService.shardDeRegion(2L));
+
+        // Las facturas 1 y 2 del import.sql son del cliente 1 (Sudamérica).
+        assertEquals(List.of(1L, 2L), jdbc("america").queryForList(
+                "select id from facturas where cliente_id = 1 order by id", Long.class));
+        assertEquals(0, jdbc("principal").queryForObject(
+                "select count(*) from clientes where region_id in (1, 3, 4)", Integer.class));
+        assertEquals(List.of(3L, 4L, 5L), jdbc("europa").queryForList(
+                "select id from clientes order by id", Long.class));
+    }
+
+    @Test
+    void escrituraYLecturaVanAlShardDelCliente() throws Exception {
+        Long europea = crearFactura(3, 2);
+        Long americana = crearFactura(6, 1);
+        Long principal = crearFactura(2, 1);
+
+        assertEquals(List.of("europa"), shardsConFactura(europea));
+        assertEquals(List.of("america"), shardsConFactura(americana));
+        assertEquals(List.of("principal"), shardsConFactura(principal));
+        // Cada shard genera ids congruentes con su posición, así no se repiten entre shards.
+        int modulo = 16;
+        assertEquals((shardService.getShards().indexOf("europa") + 1) % modulo, europea % modulo);
+        assertEquals((shardService.getShards().indexOf("america") + 1) % modulo, americana % modulo);
+
+        for (Long id : List.of(europea, americana, principal)) {
+            mockMvc.perform(get("/api/facturas/" + id).header("Authorization", usuario))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(id));
+        }
+        mockMvc.perform(get("/api/clientes/3/facturas").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", hasItem(europea.intValue())));
+    }
+
+    @Test
+    void paginarMezclaLosShardsEnOrden() throws Exception {
+        mockMvc.perform(get("/api/clientes?page=0&size=5&sort=id").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.page.totalElements").value(CLIENTES_INICIALES))
+                .andExpect(jsonPath("$.content[*].id", contains(1, 2, 3, 4, 5)));
+        mockMvc.perform(get("/api/clientes?page=1&size=5&sort=id").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(6, 7, 8, 9, 10)));
+        mockMvc.perform(get("/api/clientes?page=2&size=5&sort=id").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].id", contains(11, 12)));
+        // Orden descendente por otra columna: Vlissides (3), Torvalds (4), Roe (6)...
+        mockMvc.perform(get("/api/clientes?page=0&size=3&sort=apellido,desc").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[*].apellido", contains("Vlissides", "Torvalds", "Roe")));
+    }
+
+    @Test
+    void reportesCombinanLosResultadosDeCadaShard() throws Exception {
+        crearFactura(6, 50);
+        crearFactura(3, 40);
+        crearFactura(2, 30);
+
+        Map<Long, Double> ventas = new HashMap<>();
+        Map<Long, Integer> facturasPorRegion = new HashMap<>();
+        for (String shard : shardService.getShards()) {
+            jdbc(shard).query(VENTAS_POR_CLIENTE, rs -> {
+                ventas.merge(rs.getLong(1), rs.getDouble(2), Double::sum);
+            });
+            jdbc(shard).query("select c.region_id, count(*) from facturas f join clientes c on c.id = f.cliente_id " +
+                    "group by c.region_id", rs -> {
+                facturasPorRegion.merge(rs.getInt(1) == 0 ? null : rs.getLong(1), rs.getInt(2), Integer::sum);
+            });
+        }
+        List<Integer> top = ventas.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed().thenComparing(Map.Entry.comparingByKey()))
+                .limit(3)
+                .map(entrada -> entrada.getKey().intValue())
+                .toList();
+        assertTrue(top.contains(6) && top.contains(3));
+
+        mockMvc.perform(get("/api/reportes/top-clientes?limite=3").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].id", contains(top.toArray())));
+
+        mockMvc.perform(get("/api/reportes/ventas-region").header("Authorization", usuario))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[?(@.regionId == 4)].shard", contains("europa")))
+                .andExpect(jsonPath("$[?(@.regionId == 4)].facturas", contains(facturasPorRegion.get(4L))))
+                .andExpect(jsonPath("$[?(@.regionId == 3)].shard", contains("america")))
+                .andExpect(jsonPath("$[?(@.regionId == 3)].facturas", contains(facturasPorRegion.get(3L))))
+                .andExpect(jsonPath("$[?(@.regionId == 1)].facturas", contains(facturasPorRegion.get(1L))))
+                .andExpect(jsonPath("$[?(@.regionId == 2)].shard", contains("principal")));
+    }
+
+    @Test
+    void moverUnaRegionConservaLosIds() throws Exception {
+        Long factura = crearFactura(2, 3);
+        List<Long> items = jdbc("principal").queryForList(
+                "select id from facturas_items where factura_id = ? order by id", Long.class, factura);
+
+        MovimientoRegionResponse movimiento = movimientoRegionService.mover(2L, "europa");
+        try {
+            assertEquals("principal", movimiento.getOrigen());
+            assertEquals(1L, movimiento.getClientes());
+            assertEquals(List.of("europa"), shardsConFactura(factura));
+            assertEquals(items, jdbc("europa").queryForList(
+                    "select id from facturas_items where factura_id = ? order by id", Long.class, factura));
+            assertEquals(0, jdbc("principal").queryForObject(
+                    "select count(*) from clientes where id = 2", Integer.class));
+
+            mockMvc.perform(get("/api/facturas/" + factura).header("Authorization", usuario))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(factura));
+            mockMvc.perform(get("/api/clientes/2").header("Authorization", usuario))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(2));
+
+            // Tras el movimiento el shard de destino sigue generando ids que no chocan con los copiados.
+            Long nueva = crearFactura(2, 1);
+            assertEquals(List.of("europa"), shardsConFactura(nueva));
+        } finally {
+            movimientoRegionService.mover(2L, "principal");
+        }
+        assertEquals(List.of("principal"), shardsConFactura(factura));
+    }
+
+    @Test
+    void operacionesDeShardsSoloParaAdministradores() throws Exception {
+        String administrador = new UsuariosDePrueba(jdbcTemplate, jwtService, userDetailsService)
+                .bearer("admin@shards.io", "ROLE_ADMIN");
+
+        mockMvc.perform(post("/api/shards/regiones/2/mover?destino=europa").header("Authorization", usuario))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/shards/referencias/replicar").header("Authorization", usuario))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/api/shards/referencias/replicar").header("Authorization", administrador))
+                .andExpect(status().isNoContent());
+        mockMvc.perform(get("/api/shards").header("Authorization", usuario)).andExpect(status().isOk());
+    }
+
+    @Test
+    void escribirEnUnaRegionEnMovimientoDevuelve503() throws Exception {
+        // El movimiento toma el cerrojo de escritura en otro hilo; el de la prueba hace de petición.
+        ReentrantReadWriteLock.WriteLock escritura = shardService.cerrojo(4L).writeLock();
+        CountDownLatch tomado = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        Thread movimiento = new Thread(() -> {
+            escritura.lock();
+            try {
+                tomado.countDown();
+                liberar.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                escritura.unlock();
+            }
+        });
+        movimiento.start();
+        try {
+            assertTrue(tomado.await(10, TimeUnit.SECONDS));
+            String factura = "{\"descripcion\":\"En movimiento\",\"clienteId\":3,"
+                    + "\"items\":[{\"productoId\":1,\"cantidad\":1}]}";
+            mockMvc.perform(post("/api/facturas").header("Authorization", usuario)
+                            .contentType(MediaType.APPLICATION_JSON).content(factura))
+                    .andExpect(status().isServiceUnavailable());
+            // Las lecturas siguen funcionando durante el movimiento.
+            mockMvc.perform(get("/api/clientes/3").header("Authorization", usuario))
+                    .andExpect(status().isOk());
+        } finally {
+            liberar.countDown();
+            movimiento.join();
+        }
+        crearFactura(3, 1);
+    }
+}
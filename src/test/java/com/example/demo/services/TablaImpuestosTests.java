@@ -0,0 +1,159 @@
+package com.example.demo.services;
+
+import com.example.demo.projections.TasaImpuestoView;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Compara la tabla compilada con una implementación de referencia directa sobre cientos de
+ * tablas y facturas generadas al azar (semillas fijas para que los fallos sean reproducibles).
+ */
+class TablaImpuestosTests {
+
+    private static final String[] CATEGORIAS = {"ELECTRONICA", "COMPUTACION", "HOGAR", "DEPORTES", "ALIMENTOS"};
+    private static final double EPSILON = 1e-6;
+
+    private record Tasa(Long regionId, String categoria, Double tasa) implements TasaImpuestoView {
+        public Long getRegionId() {
+            return regionId;
+        }
+
+        public String getCategoria() {
+            return categoria;
+        }
+
+        public Double getTasa() {
+            return tasa;
+        }
+    }
+
+    // Implementación de referencia: recorre las filas buscando la tasa de la categoría y, si no, la general.
+    private static double tasaReferencia(List<Tasa> filas, long regionId, String categoria) {
+        Double general = null;
+        for (Tasa fila : filas) {
+            if (fila.regionId() != regionId) {
+                continue;
+            }
+            if (categoria != null && categoria.equals(fila.categoria())) {
+                return fila.tasa();
+            }
+            if (fila.categoria() == null) {
+                general = fila.tasa();
+            }
+        }
+        return general == null ? 0.0 : general;
+    }
+
+    private static List<Tasa> tasasAleatorias(Random random) {
+        List<Tasa> filas = new ArrayList<>();
+        Set<String> usadas = new HashSet<>();
+        int cantidad = random.nextInt(30);
+        for (int i = 0; i < cantidad; i++) {
+            long region = 1 + random.nextInt(12);
+            String categoria = random.nextInt(3) == 0 ? null : CATEGORIAS[random.nextInt(CATEGORIAS.length)];
+            if (usadas.add(region + "/" + categoria)) {
+                filas.add(new Tasa(region, categoria, random.nextInt(30) / 100.0));
+            }
+        }
+        return filas;
+    }
+
+    private static String categoriaAleatoria(Random random) {
+        int opcion = random.nextInt(CATEGORIAS.length + 2);
+        if (opcion == CATEGORIAS.length) {
+            return null;
+        }
+        return opcion > CATEGORIAS.length ? "SIN_TASA" : CATEGORIAS[opcion];
+    }
+
+    @Test
+    void tasaCoincideConReferencia() {
+        for (long semilla = 0; semilla < 500; semilla++) {
+            Random random = new Random(semilla);
+            List<Tasa> filas = tasasAleatorias(random);
+            TablaImpuestos tabla = TablaImpuestos.compilar(filas);
+
+            for (int consulta = 0; consulta < 50; consulta++) {
+                long region = random.nextInt(15);
+                String categoria = categoriaAleatoria(random);
+                assertEquals(tasaReferencia(filas, region, categoria),
+                        tabla.tasa(region, tabla.indiceCategoria(categoria)), EPSILON,
+                        "semilla " + semilla + ", región " + region + ", categoría " + categoria);
+            }
+        }
+    }
+
+    @Test
+    void acumularCoincideConReferencia() {
+        for (long semilla = 0; semilla < 200; semilla++) {
+            Random random = new Random(semilla);
+            List<Tasa> filas = tasasAleatorias(random);
+            TablaImpuestos tabla = TablaImpuestos.compilar(filas);
+
+            int facturas = 1 + random.nextInt(50);
+            long[] regionFactura = new long[facturas];
+            for (int f = 0; f < facturas; f++) {
+                regionFactura[f] = random.nextInt(15);
+            }
+
+            int lineas = random.nextInt(400);
+            int[] factura = new int[lineas];
+            long[] region = new long[lineas];
+            String[] nombres = new String[lineas];
+            int[] categoria = new int[lineas];
+            int[] cantidad = new int[lineas];
+            double[] precio = new double[lineas];
+            double[] subtotalesEsperados = new double[facturas];
+            double[] impuestosEsperados = new double[facturas];
+            for (int i = 0; i < lineas; i++) {
+                factura[i] = random.nextInt(facturas);
+                region[i] = regionFactura[factura[i]];
+                nombres[i] = categoriaAleatoria(random);
+                categoria[i] = tabla.indiceCategoria(nombres[i]);
+                cantidad[i] = 1 + random.nextInt(10);
+                precio[i] = random.nextInt(1_000_000) / 100.0;
+
+                double importe = cantidad[i] * precio[i];
+                subtotalesEsperados[factura[i]] += importe;
+                impuestosEsperados[factura[i]] += importe * tasaReferencia(filas, region[i], nombres[i]);
+            }
+
+            double[] subtotales = new double[facturas];
+            double[] impuestos = new double[facturas];
+            tabla.acumular(lineas, factura, region, categoria, cantidad, precio, subtotales, impuestos);
+
+            for (int f = 0; f < facturas; f++) {
+                assertEquals(subtotalesEsperados[f], subtotales[f], EPSILON, "semilla " + semilla);
+                assertEquals(impuestosEsperados[f], impuestos[f], EPSILON, "semilla " + semilla);
+                double impuestoLinea = 0.0;
+                for (int i = 0; i < lineas; i++) {
+                    if (factura[i] == f) {
+                        impuestoLinea += tabla.impuesto(region[i], categoria[i], cantidad[i], precio[i]);
+                    }
+                }
+                assertEquals(impuestosEsperados[f], impuestoLinea, EPSILON, "semilla " + semilla);
+            }
+        }
+    }
+
+    @Test
+    void rechazaTasasRepetidas() {
+        List<Tasa> filas = List.of(new Tasa(1L, "HOGAR", 0.1), new Tasa(1L, "HOGAR", 0.2));
+        assertThrows(IllegalArgumentException.class, () -> TablaImpuestos.compilar(filas));
+    }
+
+    @Test
+    void tablaVaciaNoCobraImpuestos() {
+        TablaImpuestos tabla = TablaImpuestos.vacia();
+        assertEquals(0.0, tabla.tasa(1L, tabla.indiceCategoria("HOGAR")));
+        assertEquals(0.0, tabla.impuesto(1L, TablaImpuestos.SIN_CATEGORIA, 3, 10.0));
+    }
+}